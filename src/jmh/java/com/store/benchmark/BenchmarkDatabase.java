@@ -0,0 +1,91 @@
+package com.store.benchmark;
+
+import com.store.dao.impl.LoginDAOImpl;
+import com.store.dao.impl.ProductDAOImpl;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.Status;
+import com.store.dto.UserType;
+import com.store.model.Login;
+import com.store.model.Product;
+import com.store.search.ProductSearchIndex;
+import com.store.util.DatabaseException;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * A seeded in-memory Derby shared by the DAO benchmarks. Each fork gets its own copy, so nothing is
+ * left on disk and every run starts from the same rows. Point -Dderby.url at a file database to
+ * measure with real I/O instead.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    public static final int PRODUCTS = 5000;
+    public static final int LOGINS = 2000;
+    static final String[] ADJECTIVES = {"Organic", "Fresh", "Whole", "Frozen", "Local", "Premium", "Mini", "Family"};
+    static final String[] NOUNS = {"Apple", "Banana", "Milk", "Bread", "Cheese", "Rice", "Coffee", "Tomato",
+            "Yogurt", "Pasta", "Butter", "Spinach", "Salmon", "Honey", "Oats", "Lentils"};
+    static final String[] COMPANIES = {"Green Farm", "Daily Fresh", "Harvest Co", "Blue Valley", "Sunrise Foods"};
+    
+    static {
+        if (System.getProperty("derby.url") == null && System.getProperty("derby.profile") == null) {
+            System.setProperty("derby.profile", "memory");
+        }
+    }
+    
+    public ProductDAOImpl productDAO;
+    public LoginDAOImpl loginDAO;
+    
+    @Setup(Level.Trial)
+    public void seed() throws DatabaseException, InterruptedException {
+        productDAO = new ProductDAOImpl();
+        loginDAO = new LoginDAOImpl();
+        Random random = new Random(42);
+        
+        if (productDAO.getTotalCount() < PRODUCTS) {
+            List<ImportRow<Product>> rows = new ArrayList<>(PRODUCTS);
+            for (int i = 0; i < PRODUCTS; i++) {
+                rows.add(new ImportRow<>(i + 1, randomProduct(random, i)));
+            }
+            productDAO.saveAll(rows, new BulkLoadResult());
+        }
+        
+        if (loginDAO.findByEmail(email(0)).isEmpty()) {
+            // Cost 4 keeps seeding fast; lookups never check the hash
+            String hash = BCrypt.hashpw("benchmark", BCrypt.gensalt(4));
+            for (int i = 0; i < LOGINS; i++) {
+                loginDAO.save(new Login(email(i), hash, UserType.Customer, Status.Active));
+            }
+        }
+        
+        // searchByName goes through the index once it is loaded; measure that path, not the fallback
+        ProductSearchIndex index = ProductSearchIndex.getInstance();
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        if (!index.isReady()) {
+            throw new IllegalStateException("Product search index did not load within 60 s");
+        }
+    }
+    
+    static Product randomProduct(Random random, int i) {
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+        String description = "Pack of " + (1 + random.nextInt(12)) + ", " + NOUNS[random.nextInt(NOUNS.length)].toLowerCase()
+                + " flavour";
+        BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(5000), 2);
+        return new Product(name, description, COMPANIES[random.nextInt(COMPANIES.length)], price, random.nextInt(500));
+    }
+    
+    public static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,68 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.util.FileProcessingException;
+import com.store.util.ProductCSVParsingStrategy;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Record-to-Product conversion only; the records are parsed once up front, as in ProductImportService
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvParsingBenchmark {
+    private static final int RECORDS = 10_000;
+    
+    private final ProductCSVParsingStrategy strategy = new ProductCSVParsingStrategy();
+    private List<CSVRecord> records;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void parseCsv() throws IOException {
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder("name,description,company,price,stock\n");
+        for (int i = 0; i < RECORDS; i++) {
+            Product product = BenchmarkDatabase.randomProduct(random, i);
+            csv.append(product.getName()).append(",\"").append(product.getDescription()).append("\",")
+                    .append(product.getCompany()).append(',').append(product.getPrice().toPlainString()).append(',')
+                    .append(product.getStock()).append('\n');
+        }
+        
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreEmptyLines(true)
+                .build();
+        try (CSVParser parser = format.parse(new StringReader(csv.toString()))) {
+            records = parser.getRecords();
+        }
+    }
+    
+    @Benchmark
+    public Product parseRecord() throws FileProcessingException {
+        CSVRecord record = records.get(next);
+        next = next + 1 == RECORDS ? 0 : next + 1;
+        return strategy.parseRecord(record);
+    }
+}
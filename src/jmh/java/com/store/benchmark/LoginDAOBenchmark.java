@@ -0,0 +1,34 @@
+package com.store.benchmark;
+
+import com.store.model.Login;
+import com.store.util.DatabaseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginDAOBenchmark {
+    
+    @Benchmark
+    public Optional<Login> findByEmail(BenchmarkDatabase db) throws DatabaseException {
+        return db.loginDAO.findByEmail(BenchmarkDatabase.email(ThreadLocalRandom.current().nextInt(BenchmarkDatabase.LOGINS)));
+    }
+    
+    // Registration checks and failed sign-ins look up emails that are not there
+    @Benchmark
+    public Optional<Login> findByEmailMissing(BenchmarkDatabase db) throws DatabaseException {
+        return db.loginDAO.findByEmail("missing" + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.LOGINS) + "@example.com");
+    }
+}
@@ -0,0 +1,53 @@
+package com.store.benchmark;
+
+import com.store.util.PasswordHashingBusyException;
+import com.store.util.PasswordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * What one sign-in costs at a given BCrypt cost, including the hand-off to the hashing pool. Each cost
+ * runs in its own fork because PasswordHasher reads password.bcrypt.cost once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmark {
+    private static final String PASSWORD = "correct horse battery";
+    
+    @Param({"10", "12"})
+    public int cost;
+    
+    private String hash;
+    
+    @Setup(Level.Trial)
+    public void hash() throws PasswordHashingBusyException {
+        System.setProperty("password.bcrypt.cost", String.valueOf(cost));
+        hash = PasswordUtil.hashPassword(PASSWORD);
+    }
+    
+    @Benchmark
+    public boolean verify() throws PasswordHashingBusyException {
+        return PasswordUtil.verifyPassword(PASSWORD, hash);
+    }
+    
+    @Benchmark
+    public boolean verifyWrongPassword() throws PasswordHashingBusyException {
+        return PasswordUtil.verifyPassword("incorrect horse battery", hash);
+    }
+}
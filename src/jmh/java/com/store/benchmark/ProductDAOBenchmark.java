@@ -0,0 +1,57 @@
+package com.store.benchmark;
+
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Goes straight to ProductDAOImpl, so neither the product cache nor the metrics proxy is in the way
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDAOBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Paging {
+        @Param({"20", "100"})
+        public int pageSize;
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Search {
+        // A common word, a single product and a miss
+        @Param({"milk", "apple 42", "zucchini"})
+        public String term;
+    }
+    
+    @Benchmark
+    public Optional<Product> findById(BenchmarkDatabase db) throws DatabaseException {
+        return db.productDAO.findById(1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.PRODUCTS));
+    }
+    
+    @Benchmark
+    public List<Product> findAllPage(BenchmarkDatabase db, Paging paging) throws DatabaseException {
+        int pages = BenchmarkDatabase.PRODUCTS / paging.pageSize;
+        return db.productDAO.findAll(1 + ThreadLocalRandom.current().nextInt(pages), paging.pageSize);
+    }
+    
+    @Benchmark
+    public List<Product> searchByName(BenchmarkDatabase db, Search search) throws DatabaseException {
+        return db.productDAO.searchByName(search.term);
+    }
+}
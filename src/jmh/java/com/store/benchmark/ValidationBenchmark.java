@@ -0,0 +1,87 @@
+package com.store.benchmark;
+
+import com.store.util.EmailFormatException;
+import com.store.util.ProductCSVParsingStrategy;
+import com.store.util.ValidationException;
+import com.store.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Invalid inputs are measured separately: they pay for building an exception and its stack trace
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    // Non-final fields, so the JIT cannot fold the checks away for constant inputs
+    private String[] expectedHeaders = new ProductCSVParsingStrategy().getExpectedHeaders();
+    private String[] actualHeaders = {"Name", "Description", "Company", "Price", " Stock"};
+    private String email = "jane.doe+groceries@mail.example.com";
+    private String invalidEmail = "jane.doe@@example";
+    private String password = "s3cret-enough";
+    private String name = "Jane Doe";
+    private String phone = "+441632960961";
+    private String invalidPhone = "call me maybe";
+    private String untrusted = "  <b>Fresh & \"organic\" apples</b>  ";
+    
+    @Benchmark
+    public void validateEmail() throws EmailFormatException {
+        ValidationUtil.validateEmail(email);
+    }
+    
+    @Benchmark
+    public Exception validateEmailInvalid() {
+        try {
+            ValidationUtil.validateEmail(invalidEmail);
+            return null;
+        } catch (EmailFormatException e) {
+            return e;
+        }
+    }
+    
+    @Benchmark
+    public void validatePassword() throws ValidationException {
+        ValidationUtil.validatePassword(password);
+    }
+    
+    @Benchmark
+    public void validateName() throws ValidationException {
+        ValidationUtil.validateName(name);
+    }
+    
+    @Benchmark
+    public void validatePhone() throws ValidationException {
+        ValidationUtil.validatePhone(phone);
+    }
+    
+    @Benchmark
+    public Exception validatePhoneInvalid() {
+        try {
+            ValidationUtil.validatePhone(invalidPhone);
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+    
+    @Benchmark
+    public boolean isValidCSVHeader() {
+        return ValidationUtil.isValidCSVHeader(expectedHeaders, actualHeaders);
+    }
+    
+    @Benchmark
+    public String sanitizeInput() {
+        return ValidationUtil.sanitizeInput(untrusted);
+    }
+}
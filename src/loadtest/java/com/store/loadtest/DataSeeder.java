@@ -0,0 +1,99 @@
+package com.store.loadtest;
+
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.CustomerDAO;
+import com.store.dao.DAOFactory;
+import com.store.dao.LoginDAO;
+import com.store.dao.OrderDAO;
+import com.store.dao.OrderItemDAO;
+import com.store.dao.ProductDAO;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.OrderStatus;
+import com.store.dto.Status;
+import com.store.dto.UserType;
+import com.store.model.Customer;
+import com.store.model.Login;
+import com.store.model.Order;
+import com.store.model.OrderItem;
+import com.store.model.Product;
+import com.store.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Fills the load test database through the application's own DAOs, then shuts Derby down so the
+ * WAR (which loads its own copy of Derby) can open the same database.
+ */
+public class DataSeeder {
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+    static final String[] ADJECTIVES = {"Organic", "Fresh", "Whole", "Frozen", "Local", "Premium", "Mini", "Family"};
+    static final String[] NOUNS = {"Apple", "Banana", "Milk", "Bread", "Cheese", "Rice", "Coffee", "Tomato",
+            "Yogurt", "Pasta", "Butter", "Spinach", "Salmon", "Honey", "Oats", "Lentils"};
+    private static final String[] COMPANIES = {"Green Farm", "Daily Fresh", "Harvest Co", "Blue Valley", "Sunrise Foods"};
+    
+    private final int productCount;
+    private final int userCount;
+    private final int cartsPerUser;
+    private final String password;
+    private final Random random = new Random(42);
+    
+    public DataSeeder(int productCount, int userCount, int cartsPerUser, String password) {
+        this.productCount = productCount;
+        this.userCount = userCount;
+        this.cartsPerUser = cartsPerUser;
+        this.password = password;
+    }
+    
+    public List<VirtualUser> seed() throws Exception {
+        long started = System.currentTimeMillis();
+        DAOFactory factory = DAOFactory.getInstance();
+        ProductDAO productDAO = factory.getProductDAO();
+        
+        List<ImportRow<Product>> rows = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            // Stock is deep enough that checkouts never run out during a run
+            rows.add(new ImportRow<>(i + 1, new Product(name, "Load test product " + i,
+                    COMPANIES[random.nextInt(COMPANIES.length)], BigDecimal.valueOf(50 + random.nextInt(5000), 2), 1_000_000)));
+        }
+        productDAO.saveAll(rows, new BulkLoadResult());
+        List<Integer> productIds = new ArrayList<>();
+        productDAO.forEach(product -> productIds.add(product.getProductId()));
+        
+        // One hash for everyone: the server still pays full BCrypt cost on every login
+        String passwordHash = PasswordUtil.hashPassword(password);
+        CustomerDAO customerDAO = factory.getCustomerDAO();
+        LoginDAO loginDAO = factory.getLoginDAO();
+        OrderDAO orderDAO = factory.getOrderDAO();
+        OrderItemDAO orderItemDAO = factory.getOrderItemDAO();
+        List<VirtualUser> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            String email = "loaduser" + i + "@example.com";
+            Customer customer = customerDAO.save(new Customer("Load User " + i, email, null, i + " Test Street"));
+            loginDAO.save(new Login(email, passwordHash, UserType.Customer, Status.Active));
+            
+            List<Integer> cartIds = new ArrayList<>(cartsPerUser);
+            for (int c = 0; c < cartsPerUser; c++) {
+                Order cart = orderDAO.save(new Order(customer.getId(), OrderStatus.Cart));
+                int lines = 1 + random.nextInt(4);
+                for (int line = 0; line < lines; line++) {
+                    Integer productId = productIds.get(random.nextInt(productIds.size()));
+                    orderItemDAO.save(new OrderItem(cart.getOrderId(), productId, 1 + random.nextInt(3), BigDecimal.ONE));
+                }
+                cartIds.add(cart.getOrderId());
+            }
+            users.add(new VirtualUser(email, cartIds));
+        }
+        
+        DerbyConnectionManager.getInstance().shutdown();
+        logger.info("Seeded {} products, {} users and {} carts in {} ms", productIds.size(), userCount,
+                userCount * cartsPerUser, System.currentTimeMillis() - started);
+        return users;
+    }
+}
@@ -0,0 +1,35 @@
+package com.store.loadtest;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// The packaged WAR in an embedded Tomcat 9, deployed at the root context as on a real server
+public class EmbeddedServer {
+    private final Tomcat tomcat = new Tomcat();
+    
+    public EmbeddedServer(Path war, Path baseDir, int port, int maxThreads) {
+        if (!Files.exists(war)) {
+            throw new IllegalStateException("WAR not found at " + war.toAbsolutePath() + "; run mvn package first");
+        }
+        tomcat.setBaseDir(baseDir.toAbsolutePath().toString());
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(maxThreads));
+        tomcat.getHost().setAutoDeploy(false);
+        Context context = tomcat.addWebapp("", war.toAbsolutePath().toString());
+        // Only the WAR's own jars are scanned for annotations and TLDs, not the harness classpath
+        if (context.getJarScanner() instanceof StandardJarScanner scanner) {
+            scanner.setScanClassPath(false);
+            scanner.setScanManifest(false);
+        }
+    }
+    
+    public int start() throws LifecycleException {
+        tomcat.start();
+        return tomcat.getConnector().getLocalPort();
+    }
+}
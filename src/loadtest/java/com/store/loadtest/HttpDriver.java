@@ -0,0 +1,92 @@
+package com.store.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+
+// Sends one request for a virtual user and records its latency under a fixed endpoint name
+public class HttpDriver {
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LatencyReport report;
+    private final Duration timeout;
+    
+    public HttpDriver(String baseUrl, LatencyReport report, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+    
+    public HttpResponse<String> get(String endpoint, String path, VirtualUser user, long startNanos, boolean measured) {
+        return send(endpoint, request(path, user).GET(), user, startNanos, measured);
+    }
+    
+    public HttpResponse<String> post(String endpoint, String path, Map<String, String> form, VirtualUser user,
+                                     long startNanos, boolean measured) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return send(endpoint, request(path, user)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())), user, startNanos, measured);
+    }
+    
+    // For timings that span several requests, such as a checkout until its order is placed
+    public void record(String endpoint, long startNanos, int status, boolean measured) {
+        if (measured) {
+            report.record(endpoint, System.nanoTime() - startNanos, status);
+        }
+    }
+    
+    private static boolean isSentToLogin(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 3
+                && response.headers().firstValue("Location").map(location -> location.contains("/login")).orElse(false);
+    }
+    
+    private HttpRequest.Builder request(String path, VirtualUser user) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        String cookies = user.cookieHeader();
+        if (!cookies.isEmpty()) {
+            builder.header("Cookie", cookies);
+        }
+        return builder;
+    }
+    
+    // Latency runs from startNanos, which for a scenario's first request is its scheduled start
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, VirtualUser user,
+                                      long startNanos, boolean measured) {
+        try {
+            HttpRequest built = request.build();
+            HttpResponse<String> response = client.send(built, HttpResponse.BodyHandlers.ofString());
+            user.storeCookies(response);
+            int status = response.statusCode();
+            if (isSentToLogin(response) && !built.uri().getPath().equals("/login")) {
+                // AuthenticationFilter turned the request away; count it as the 401 it amounts to
+                user.clearSession();
+                status = 401;
+            }
+            record(endpoint, startNanos, status, measured);
+            return response;
+        } catch (IOException e) {
+            record(endpoint, startNanos, -1, measured);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
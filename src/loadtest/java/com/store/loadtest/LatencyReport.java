@@ -0,0 +1,117 @@
+package com.store.loadtest;
+
+import com.store.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Every latency of the measured period, kept per endpoint so percentiles are exact rather than
+ * bucketed. Responses of 400 and above and requests that got no response at all count as errors.
+ */
+public class LatencyReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+    private final LongAdder dropped = new LongAdder();
+    
+    public void record(String endpoint, long nanos, int status) {
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).add(nanos, status);
+    }
+    
+    // An arrival that found loadtest.max.in.flight scenarios already running
+    public void dropped() {
+        dropped.increment();
+    }
+    
+    private static class Endpoint {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+        
+        synchronized void add(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (status < 0 || status >= 400) {
+                errors++;
+            }
+        }
+        
+        synchronized Summary summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double[] values = new double[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values[i] = count == 0 ? 0 : millis(sorted[Math.max(0, (int) Math.ceil(PERCENTILES[i] / 100 * count) - 1)]);
+            }
+            double max = count == 0 ? 0 : millis(sorted[count - 1]);
+            return new Summary(count, errors, count / seconds, values, max, new TreeMap<>(statuses));
+        }
+    }
+    
+    private record Summary(long count, long errors, double throughput, double[] percentiles, double max,
+                           Map<Integer, Long> statuses) {}
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    public void print(PrintStream out, double seconds) {
+        out.printf("%-34s %9s %7s %9s %9s %9s %9s %9s %9s  %s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses (-1 = no response)");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Summary s = entry.getValue().summarize(seconds);
+            out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", entry.getKey(), s.count(), s.errors(),
+                    s.throughput(), s.percentiles()[0], s.percentiles()[1], s.percentiles()[2], s.percentiles()[3],
+                    s.max(), s.statuses());
+        }
+        if (dropped.sum() > 0) {
+            out.printf("%d scenario starts were dropped at loadtest.max.in.flight; the server could not keep up%n",
+                    dropped.sum());
+        }
+    }
+    
+    public void writeJson(Path file, double seconds, Map<String, String> settings) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("{\"settings\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                out.write((first ? "" : ",") + JsonUtil.quote(setting.getKey()) + ":" + JsonUtil.quote(setting.getValue()));
+                first = false;
+            }
+            out.write("},\"measuredSeconds\":" + seconds + ",\"droppedStarts\":" + dropped.sum() + ",\"endpoints\":[");
+            first = true;
+            for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+                Summary s = entry.getValue().summarize(seconds);
+                out.write((first ? "" : ",") + "{\"endpoint\":" + JsonUtil.quote(entry.getKey())
+                        + ",\"requests\":" + s.count() + ",\"errors\":" + s.errors()
+                        + ",\"throughputPerSecond\":" + s.throughput() + ",\"latencyMillis\":{");
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    out.write("\"p" + String.valueOf(PERCENTILES[i]).replace(".0", "") + "\":" + s.percentiles()[i] + ",");
+                }
+                out.write("\"max\":" + s.max() + "},\"statuses\":{");
+                boolean firstStatus = true;
+                for (Map.Entry<Integer, Long> status : s.statuses().entrySet()) {
+                    out.write((firstStatus ? "" : ",") + "\"" + status.getKey() + "\":" + status.getValue());
+                    firstStatus = false;
+                }
+                out.write("}}");
+                first = false;
+            }
+            out.write("]}\n");
+        }
+    }
+}
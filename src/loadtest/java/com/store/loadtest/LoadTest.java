@@ -0,0 +1,165 @@
+package com.store.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/*
+ * End-to-end load test: seeds a fresh file-based Derby database, boots the packaged WAR in an
+ * embedded Tomcat against it and drives a weighted mix of scenarios at a fixed arrival rate
+ * (open loop: arrivals do not wait for earlier requests to finish). Prints per-endpoint
+ * throughput and latency percentiles, and writes them as JSON together with the server's
+ * /metrics as they were at the end of the run.
+ */
+public class LoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        Path workDir = Path.of(config.getString("loadtest.work.dir", "target/loadtest"));
+        double rate = config.getDouble("loadtest.rate", 50);
+        int warmupSeconds = config.getInt("loadtest.warmup.seconds", 15);
+        int durationSeconds = config.getInt("loadtest.duration.seconds", 60);
+        boolean poisson = !"constant".equalsIgnoreCase(config.getString("loadtest.arrivals", "poisson"));
+        int maxInFlight = config.getInt("loadtest.max.in.flight", 5000);
+        int productCount = config.getInt("loadtest.products", 5000);
+        String password = config.getString("loadtest.password", "LoadTest-123");
+        Map<Scenario, Integer> mix = config.getMix();
+        
+        Path dbDir = workDir.resolve("db");
+        deleteRecursively(dbDir);
+        // Read by DerbyConnectionManager both here while seeding and inside the WAR
+        System.setProperty("derby.url", "jdbc:derby:" + dbDir.toAbsolutePath() + ";create=true");
+        List<VirtualUser> users = new DataSeeder(productCount, config.getInt("loadtest.users", 500),
+                config.getInt("loadtest.carts.per.user", 3), password).seed();
+        
+        EmbeddedServer server = new EmbeddedServer(Path.of(config.getString("loadtest.war", "target/online-grocery.war")),
+                workDir.resolve("tomcat"), config.getInt("loadtest.port", 0), config.getInt("loadtest.server.threads", 200));
+        String baseUrl = "http://localhost:" + server.start();
+        logger.info("Store running at {}", baseUrl);
+        
+        LatencyReport report = new LatencyReport();
+        HttpDriver driver = new HttpDriver(baseUrl, report,
+                Duration.ofMillis(config.getInt("loadtest.request.timeout.ms", 30000)));
+        Scenario.Context context = new Scenario.Context(driver, password, productCount,
+                config.getInt("loadtest.checkout.max.polls", 100), config.getInt("loadtest.checkout.poll.ms", 100));
+        
+        logger.info("Driving {} scenario starts/s ({} arrivals) for {} s after {} s warm-up, mix {}",
+                rate, poisson ? "Poisson" : "evenly spaced", durationSeconds, warmupSeconds, mix);
+        generateLoad(context, users, mix, rate, poisson, warmupSeconds, durationSeconds, maxInFlight, report);
+        
+        report.print(System.out, durationSeconds);
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("rate", String.valueOf(rate));
+        settings.put("arrivals", poisson ? "poisson" : "constant");
+        settings.put("durationSeconds", String.valueOf(durationSeconds));
+        settings.put("warmupSeconds", String.valueOf(warmupSeconds));
+        settings.put("mix", mix.toString());
+        settings.put("users", String.valueOf(users.size()));
+        settings.put("products", String.valueOf(productCount));
+        Path reportFile = Path.of(config.getString("loadtest.report", workDir.resolve("report.json").toString()));
+        report.writeJson(reportFile, durationSeconds, settings);
+        saveServerMetrics(baseUrl, workDir.resolve("server-metrics.txt"));
+        logger.info("Report written to {}", reportFile.toAbsolutePath());
+        
+        // Exiting rather than undeploying: the WAR has no shutdown hooks for its pool and workers
+        System.exit(0);
+    }
+    
+    private static void generateLoad(Scenario.Context context, List<VirtualUser> users, Map<Scenario, Integer> mix,
+                                     double rate, boolean poisson, int warmupSeconds, int durationSeconds,
+                                     int maxInFlight, LatencyReport report) throws InterruptedException {
+        List<Scenario> weighted = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        
+        Random random = new Random(7);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long meanGapNanos = (long) (1_000_000_000 / rate);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduled = next;
+                next += poisson ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos) : meanGapNanos;
+                boolean measured = scheduled >= measureFrom;
+                
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        report.dropped();
+                    }
+                    continue;
+                }
+                Scenario scenario = weighted.get(random.nextInt(weighted.size()));
+                VirtualUser user = users.get(random.nextInt(users.size()));
+                executor.execute(() -> {
+                    try {
+                        scenario.run(context, user, scheduled, measured);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        logger.warn("Scenario {} failed: {}", scenario.getName(), e.toString());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // Closing the executor waits for the scenarios still running
+        }
+    }
+    
+    private static void saveServerMetrics(String baseUrl, Path file) {
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/metrics")).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                Files.writeString(file, response.body());
+            }
+        } catch (IOException e) {
+            logger.warn("Could not fetch server metrics: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.store.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Settings from the file named by -Dloadtest.config (src/loadtest/loadtest.properties by default); -D wins
+public class LoadTestConfig {
+    private final Properties properties = new Properties();
+    
+    private LoadTestConfig() {}
+    
+    public static LoadTestConfig load() throws IOException {
+        LoadTestConfig config = new LoadTestConfig();
+        Path file = Path.of(System.getProperty("loadtest.config", "src/loadtest/loadtest.properties"));
+        if (Files.exists(file)) {
+            try (InputStream input = Files.newInputStream(file)) {
+                config.properties.load(input);
+            }
+        } else if (System.getProperty("loadtest.config") != null) {
+            throw new IOException("Load test config not found: " + file.toAbsolutePath());
+        }
+        return config;
+    }
+    
+    public String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value != null && !value.isBlank() ? value.trim() : defaultValue;
+    }
+    
+    public int getInt(String key, int defaultValue) {
+        return Integer.parseInt(getString(key, String.valueOf(defaultValue)));
+    }
+    
+    public double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(getString(key, String.valueOf(defaultValue)));
+    }
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getString(key, String.valueOf(defaultValue)));
+    }
+    
+    // "browse:50,search:25" -> weights by scenario, in the order given
+    public Map<Scenario, Integer> getMix() {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : getString("loadtest.mix", "browse:50,search:25,login:10,cart:10,checkout:5").split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no scenarios with a positive weight");
+        }
+        return mix;
+    }
+}
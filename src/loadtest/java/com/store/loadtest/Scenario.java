@@ -0,0 +1,118 @@
+package com.store.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * What one arrival does. Only the first request of a scenario is timed from the scheduled start, so
+ * a slow server shows up as latency rather than as fewer requests (no coordinated omission); later
+ * requests are timed from when the previous one finished, as a browser would issue them.
+ */
+public enum Scenario {
+    BROWSE("browse") {
+        @Override
+        void run(Context context, VirtualUser user, long startNanos, boolean measured) {
+            int page = 1 + ThreadLocalRandom.current().nextInt(Math.max(1, context.productCount() / 20));
+            context.driver().get("GET /products", "/products?page=" + page, user, startNanos, measured);
+        }
+    },
+    SEARCH("search") {
+        @Override
+        void run(Context context, VirtualUser user, long startNanos, boolean measured) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String noun = DataSeeder.NOUNS[random.nextInt(DataSeeder.NOUNS.length)].toLowerCase(Locale.ROOT);
+            String prefix = noun.substring(0, Math.min(noun.length(), 2 + random.nextInt(3)));
+            context.driver().get("GET /products/suggest", "/products/suggest?q=" + prefix, user, startNanos, measured);
+        }
+    },
+    LOGIN("login") {
+        @Override
+        void run(Context context, VirtualUser user, long startNanos, boolean measured) {
+            login(context, user, startNanos, measured);
+        }
+    },
+    ADD_TO_CART("cart") {
+        @Override
+        void run(Context context, VirtualUser user, long startNanos, boolean measured) {
+            long next = ensureLoggedIn(context, user, startNanos, measured);
+            int productId = 1 + ThreadLocalRandom.current().nextInt(context.productCount());
+            context.driver().post("POST /cart/add", "/cart/add",
+                    Map.of("productId", String.valueOf(productId), "quantity", "1"), user, next, measured);
+        }
+    },
+    CHECKOUT("checkout") {
+        @Override
+        void run(Context context, VirtualUser user, long startNanos, boolean measured) throws InterruptedException {
+            long placeStart = ensureLoggedIn(context, user, startNanos, measured);
+            Integer cartId = user.nextCartId();
+            HttpResponse<String> placed = context.driver().post("POST /order/place", "/order/place?cartId=" + cartId,
+                    Map.of(), user, placeStart, measured);
+            if (placed == null || placed.statusCode() != 202) {
+                return;
+            }
+            
+            // Orders are placed asynchronously; poll the ticket the way the storefront does
+            for (int poll = 0; poll < context.maxStatusPolls(); poll++) {
+                Thread.sleep(context.statusPollMillis());
+                HttpResponse<String> status = context.driver().get("GET /order/status",
+                        "/order/status?ref=cart-" + cartId, user, System.nanoTime(), measured);
+                if (status == null || status.statusCode() != 200) {
+                    context.driver().record("checkout until final", placeStart, status == null ? -1 : status.statusCode(),
+                            measured);
+                    return;
+                }
+                String body = status.body();
+                if (body.contains("\"Placed\"")) {
+                    context.driver().record("checkout until final", placeStart, 200, measured);
+                    return;
+                }
+                if (body.contains("\"Cancelled\"") || body.contains("\"Failed\"")) {
+                    context.driver().record("checkout until final", placeStart, 409, measured);
+                    return;
+                }
+            }
+            context.driver().record("checkout until final", placeStart, 504, measured);
+        }
+    };
+    
+    // What scenarios need from the run besides the user
+    public record Context(HttpDriver driver, String password, int productCount, int maxStatusPolls,
+                          long statusPollMillis) {}
+    
+    private final String name;
+    
+    Scenario(String name) {
+        this.name = name;
+    }
+    
+    abstract void run(Context context, VirtualUser user, long startNanos, boolean measured) throws InterruptedException;
+    
+    public static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.name.equalsIgnoreCase(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    private static HttpResponse<String> login(Context context, VirtualUser user, long startNanos, boolean measured) {
+        return context.driver().post("POST /login", "/login",
+                Map.of("email", user.getEmail(), "password", context.password()), user, startNanos, measured);
+    }
+    
+    // Logs in first when the user has no session yet; returns when the next request starts
+    private static long ensureLoggedIn(Context context, VirtualUser user, long startNanos, boolean measured) {
+        if (user.isLoggedIn()) {
+            return startNanos;
+        }
+        login(context, user, startNanos, measured);
+        return System.nanoTime();
+    }
+}
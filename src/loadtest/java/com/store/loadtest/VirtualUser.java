@@ -0,0 +1,56 @@
+package com.store.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A seeded shopper: credentials, the carts seeded for them and the cookies of their current session
+public class VirtualUser {
+    private final String email;
+    private final List<Integer> cartIds;
+    private final AtomicInteger nextCart = new AtomicInteger();
+    private final Map<String, String> cookies = new ConcurrentHashMap<>();
+    
+    public VirtualUser(String email, List<Integer> cartIds) {
+        this.email = email;
+        this.cartIds = List.copyOf(cartIds);
+    }
+    
+    public String getEmail() { return email; }
+    
+    public boolean isLoggedIn() {
+        return cookies.containsKey("JSESSIONID");
+    }
+    
+    // Each checkout takes the next seeded cart; once they run out, carts are resubmitted and resolve as already placed
+    public Integer nextCartId() {
+        return cartIds.get(Math.floorMod(nextCart.getAndIncrement(), cartIds.size()));
+    }
+    
+    public void clearSession() {
+        cookies.clear();
+    }
+    
+    public String cookieHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.getKey()).append('=').append(cookie.getValue());
+        }
+        return header.toString();
+    }
+    
+    public void storeCookies(HttpResponse<?> response) {
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                cookies.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.store.cache;
+
+import com.store.config.AppConfig;
+import com.store.dao.ProductChangeEvents;
+import com.store.dao.ProductChangeListener;
+import com.store.model.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ProductCache implements ProductChangeListener {
+    private static final int STRIPES = 16;
+    private static ProductCache instance;
+    
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long stockTtlNanos;
+    private final Stripe[] stripes;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stockRefreshes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    
+    private ProductCache() {
+        enabled = AppConfig.getBoolean("product.cache.enabled", true);
+        int maxSize = AppConfig.getInt("product.cache.max.size", 10000);
+        ttlNanos = TimeUnit.SECONDS.toNanos(AppConfig.getLong("product.cache.ttl.seconds", 300));
+        stockTtlNanos = TimeUnit.SECONDS.toNanos(AppConfig.getLong("product.cache.stock.ttl.seconds", 5));
+        
+        stripes = new Stripe[STRIPES];
+        int perStripe = Math.max(1, maxSize / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+    
+    public static synchronized ProductCache getInstance() {
+        if (instance == null) {
+            instance = new ProductCache();
+            if (instance.enabled) {
+                ProductChangeEvents.register(instance);
+            }
+        }
+        return instance;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Result of a lookup: a fresh copy, a copy whose stock needs re-reading, or nothing usable
+    public enum Freshness { FRESH, STALE_STOCK, MISS }
+    
+    public static final class Lookup {
+        private final Freshness freshness;
+        private final Product product;
+        
+        private Lookup(Freshness freshness, Product product) {
+            this.freshness = freshness;
+            this.product = product;
+        }
+        
+        public Freshness getFreshness() { return freshness; }
+        
+        public Product getProduct() { return product; }
+    }
+    
+    private static final Lookup MISS = new Lookup(Freshness.MISS, null);
+    
+    public Lookup get(Integer productId) {
+        Stripe stripe = stripeFor(productId);
+        long now = System.nanoTime();
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(productId);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return MISS;
+            }
+            if (now - entry.loadedAt > ttlNanos) {
+                stripe.entries.remove(productId);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return MISS;
+            }
+            hits.incrementAndGet();
+            Product copy = copyOf(entry.product);
+            copy.setStock(entry.stock);
+            if (now - entry.stockLoadedAt > stockTtlNanos) {
+                return new Lookup(Freshness.STALE_STOCK, copy);
+            }
+            return new Lookup(Freshness.FRESH, copy);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    public void put(Product product, long loadStartedNanos) {
+        long now = System.nanoTime();
+        recordLoad(now - loadStartedNanos);
+        
+        Stripe stripe = stripeFor(product.getProductId());
+        stripe.lock.lock();
+        try {
+            // A write that invalidated this stripe while we were loading makes our copy suspect
+            if (stripe.lastInvalidatedAt - loadStartedNanos >= 0) {
+                return;
+            }
+            stripe.entries.put(product.getProductId(), new Entry(copyOf(product), product.getStock(), now));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    public void refreshStock(Integer productId, int stock, long loadStartedNanos) {
+        long now = System.nanoTime();
+        recordLoad(now - loadStartedNanos);
+        stockRefreshes.incrementAndGet();
+        
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(productId);
+            if (entry != null && stripe.lastInvalidatedAt - loadStartedNanos < 0) {
+                entry.stock = stock;
+                entry.stockLoadedAt = now;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    public void invalidate(Integer productId) {
+        Stripe stripe = stripeFor(productId);
+        stripe.lock.lock();
+        try {
+            stripe.lastInvalidatedAt = System.nanoTime();
+            if (stripe.entries.remove(productId) != null) {
+                invalidations.incrementAndGet();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.lastInvalidatedAt = System.nanoTime();
+                invalidations.addAndGet(stripe.entries.size());
+                stripe.entries.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+    
+    @Override
+    public void productSaved(Product product) {
+        // New rows cannot be cached yet
+    }
+    
+    @Override
+    public void productUpdated(Product product) {
+        invalidate(product.getProductId());
+    }
+    
+    @Override
+    public void productDeleted(Integer productId) {
+        invalidate(productId);
+    }
+    
+    @Override
+    public void productsReloaded() {
+        // Bulk loads only add rows; merges report each changed product through productUpdated
+    }
+    
+    private void recordLoad(long nanos) {
+        loads.incrementAndGet();
+        loadNanos.addAndGet(nanos);
+    }
+    
+    private Stripe stripeFor(Integer productId) {
+        int h = productId.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (STRIPES - 1)];
+    }
+    
+    // Callers mutate Product through its setters, so nothing cached is ever handed out directly
+    private static Product copyOf(Product product) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getCompany(),
+                product.getPrice(), product.getStock());
+        copy.setProductId(product.getProductId());
+        copy.setCreatedDate(product.getCreatedDate());
+        return copy;
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+    
+    public long getHits() { return hits.get(); }
+    
+    public long getMisses() { return misses.get(); }
+    
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+    
+    public long getStockRefreshes() { return stockRefreshes.get(); }
+    
+    public long getEvictions() { return evictions.get(); }
+    
+    public long getExpirations() { return expirations.get(); }
+    
+    public long getInvalidations() { return invalidations.get(); }
+    
+    public long getLoadCount() { return loads.get(); }
+    
+    public long getTotalLoadNanos() { return loadNanos.get(); }
+    
+    public double getAverageLoadMillis() {
+        long count = loads.get();
+        return count == 0 ? 0.0 : loadNanos.get() / (count * 1_000_000.0);
+    }
+    
+    private static final class Entry {
+        private final Product product;
+        private final long loadedAt;
+        private int stock;
+        private long stockLoadedAt;
+        
+        Entry(Product product, int stock, long loadedAt) {
+            this.product = product;
+            this.stock = stock;
+            this.loadedAt = loadedAt;
+            this.stockLoadedAt = loadedAt;
+        }
+    }
+    
+    // Each stripe is an access-ordered LRU guarded by its own lock, so readers rarely contend
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Integer, Entry> entries;
+        private long lastInvalidatedAt = System.nanoTime() - 1;
+        
+        Stripe(int maxEntries) {
+            entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
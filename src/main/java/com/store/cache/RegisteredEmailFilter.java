@@ -0,0 +1,102 @@
+package com.store.cache;
+
+import com.store.config.AppConfig;
+import com.store.dao.DAOFactory;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Every email with a login row, as a Bloom filter. A negative answer is definite and lets
+ * existence checks skip the database; a positive one still has to be confirmed there. Deleted
+ * logins stay in the filter, which only costs the occasional confirming query.
+ */
+public class RegisteredEmailFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+    private static RegisteredEmailFilter instance;
+    
+    private final BloomFilter filter;
+    private final long expectedEmails;
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong definiteMisses = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private volatile boolean ready;
+    
+    private RegisteredEmailFilter() {
+        expectedEmails = AppConfig.getLong("registration.email.filter.expected.size", 1_000_000);
+        double falsePositiveRate = AppConfig.getDouble("registration.email.filter.fpp", 0.01);
+        filter = new BloomFilter(expectedEmails, falsePositiveRate);
+    }
+    
+    public static synchronized RegisteredEmailFilter getInstance() {
+        if (instance == null) {
+            instance = new RegisteredEmailFilter();
+            Thread warmer = new Thread(instance::warm, "registered-email-filter-warmer");
+            warmer.setDaemon(true);
+            warmer.start();
+        }
+        return instance;
+    }
+    
+    private void warm() {
+        long started = System.currentTimeMillis();
+        try {
+            DAOFactory.getInstance().getLoginDAO().forEach(login -> add(login.getEmail()));
+            ready = true;
+            logger.info("Registered email filter loaded: {} emails, {} bits, {} hashes in {} ms",
+                    added.get(), filter.getBitCount(), filter.getHashFunctions(),
+                    System.currentTimeMillis() - started);
+            if (added.get() > expectedEmails) {
+                logger.warn("Registered email filter holds {} emails but was sized for {}; "
+                        + "raise registration.email.filter.expected.size", added.get(), expectedEmails);
+            }
+        } catch (DatabaseException e) {
+            logger.error("Failed to load registered email filter, existence checks will use the database", e);
+        }
+    }
+    
+    // Until warm-up finishes every answer is "maybe", so callers fall through to the database
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public void add(String email) {
+        if (email != null) {
+            filter.put(normalize(email));
+            added.incrementAndGet();
+        }
+    }
+    
+    // False means the email is definitely not registered
+    public boolean mightContain(String email) {
+        if (!ready || email == null) {
+            return true;
+        }
+        if (!filter.mightContain(normalize(email))) {
+            definiteMisses.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    // Called when the database denies an email the filter let through
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.incrementAndGet();
+        }
+    }
+    
+    // Case-folded so the filter stays a superset whichever case the email was stored in
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public long getAddedCount() { return added.get(); }
+    
+    public long getDefiniteMisses() { return definiteMisses.get(); }
+    
+    public long getFalsePositives() { return falsePositives.get(); }
+}
@@ -10,7 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
 
-@WebFilter({"/customer/*", "/cart/*", "/order/*", "/product/add", "/product/bulkUpload"})
+@WebFilter(urlPatterns = {"/customer/*", "/cart/*", "/order/*", "/product/add", "/product/bulkUpload", "/admin/*"}, asyncSupported = true)
 public class AuthenticationFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
     
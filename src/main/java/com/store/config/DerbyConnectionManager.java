@@ -5,29 +5,66 @@ import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import com.store.metrics.LatencyHistogram;
+import com.store.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DerbyConnectionManager {
     private static final Logger logger = LoggerFactory.getLogger(DerbyConnectionManager.class);
     private static DerbyConnectionManager instance;
-    private BlockingQueue<Connection> connectionPool;
+    private BlockingDeque<PooledConnection> idleConnections;
+    private Set<PooledConnection> borrowedConnections;
+    private Semaphore permits;
+    private ScheduledExecutorService evictor;
     private String url;
     private String username;
     private String password;
     private int maxPoolSize;
     private int minPoolSize;
+    private int minIdle;
+    private int maxIdle;
+    private long maxWaitMillis;
+    private int validationTimeoutSeconds;
+    private long idleTimeoutMillis;
+    private long evictionIntervalMillis;
+    private long leakDetectionThresholdMillis;
+    private int statementCacheSize;
+    private int streamFetchSize;
+    private QueryTracer queryTracer;
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsDestroyed = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+    private final LatencyHistogram borrowWait = MetricsRegistry.getInstance().histogram(
+            "store_db_pool_wait_seconds", "Time spent waiting for a pooled connection");
+    private volatile boolean shutdown;
     
     private DerbyConnectionManager() {
         try {
             loadProperties();
             initializePool();
-            createTables();
+            registerMetrics();
+            new SchemaMigrator(this).migrate();
         } catch (Exception e) {
             logger.error("Failed to initialize Derby Connection Manager", e);
             throw new RuntimeException("Database initialization failed", e);
@@ -49,6 +86,25 @@ public class DerbyConnectionManager {
             }
             props.load(input);
         }
+        // A profile overlays derby-<name>.properties, e.g. -Dderby.profile=memory for an in-memory database
+        String profile = System.getProperty("derby.profile", props.getProperty("derby.profile", "")).trim();
+        if (!profile.isEmpty()) {
+            String resource = "derby-" + profile + ".properties";
+            try (InputStream input = getClass().getClassLoader().getResourceAsStream(resource)) {
+                if (input == null) {
+                    throw new IOException("Unable to find " + resource + " for derby.profile=" + profile);
+                }
+                props.load(input);
+            }
+            logger.info("Using Derby profile {}", profile);
+        }
+        // As with application.properties, a JVM system property of the same name wins
+        for (String key : props.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                props.setProperty(key, override);
+            }
+        }
         
         String driver = props.getProperty("derby.driver");
         url = props.getProperty("derby.url");
@@ -56,6 +112,34 @@ public class DerbyConnectionManager {
         password = props.getProperty("derby.password", "");
         maxPoolSize = Integer.parseInt(props.getProperty("connection.pool.max.size", "20"));
         minPoolSize = Integer.parseInt(props.getProperty("connection.pool.initial.size", "5"));
+        minIdle = Integer.parseInt(props.getProperty("connection.pool.min.idle", "2"));
+        maxIdle = Integer.parseInt(props.getProperty("connection.pool.max.idle", "10"));
+        maxWaitMillis = Long.parseLong(props.getProperty("connection.pool.max.wait.ms", "5000"));
+        validationTimeoutSeconds = Integer.parseInt(props.getProperty("connection.pool.validation.timeout.seconds", "2"));
+        idleTimeoutMillis = Long.parseLong(props.getProperty("connection.pool.idle.timeout.ms", "300000"));
+        evictionIntervalMillis = Long.parseLong(props.getProperty("connection.pool.eviction.interval.ms", "30000"));
+        leakDetectionThresholdMillis = Long.parseLong(props.getProperty("connection.pool.leak.detection.threshold.ms", "0"));
+        statementCacheSize = Integer.parseInt(props.getProperty("connection.pool.statement.cache.size", "50"));
+        streamFetchSize = Integer.parseInt(props.getProperty("jdbc.stream.fetch.size", "500"));
+        
+        long slowQueryThresholdMillis = Long.parseLong(props.getProperty("jdbc.slow.query.threshold.ms", "250"));
+        double traceSampleRate = Double.parseDouble(props.getProperty("jdbc.trace.sample.rate", "0.01"));
+        if (Boolean.parseBoolean(props.getProperty("jdbc.trace.enabled", "true"))
+                && (slowQueryThresholdMillis > 0 || traceSampleRate > 0)) {
+            queryTracer = new QueryTracer(slowQueryThresholdMillis, traceSampleRate,
+                    Integer.parseInt(props.getProperty("jdbc.trace.buffer.size", "200")),
+                    Arrays.stream(props.getProperty("jdbc.trace.redact.columns", "password_hash").split(","))
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .filter(column -> !column.isEmpty())
+                            .collect(Collectors.toSet()));
+        }
+        
+        if (maxPoolSize < 1) {
+            throw new IllegalArgumentException("connection.pool.max.size must be at least 1");
+        }
+        minPoolSize = Math.min(minPoolSize, maxPoolSize);
+        maxIdle = Math.max(1, Math.min(maxIdle, maxPoolSize));
+        minIdle = Math.min(minIdle, maxIdle);
         
         try {
             Class.forName(driver);
@@ -65,148 +149,260 @@ public class DerbyConnectionManager {
     }
     
     private void initializePool() throws SQLException {
-        connectionPool = new LinkedBlockingQueue<>();
+        idleConnections = new LinkedBlockingDeque<>();
+        borrowedConnections = ConcurrentHashMap.newKeySet();
+        permits = new Semaphore(maxPoolSize, true);
         for (int i = 0; i < minPoolSize; i++) {
-            connectionPool.offer(createNewConnection());
+            idleConnections.offerFirst(createPooledConnection());
+        }
+        
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "derby-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (evictionIntervalMillis > 0) {
+            evictor.scheduleWithFixedDelay(this::runMaintenance, evictionIntervalMillis,
+                    evictionIntervalMillis, TimeUnit.MILLISECONDS);
         }
-        logger.info("Connection pool initialized with {} connections", minPoolSize);
+        logger.info("Connection pool initialized with {} connections (max {}, max wait {} ms)",
+                minPoolSize, maxPoolSize, maxWaitMillis);
     }
     
     private Connection createNewConnection() throws SQLException {
         return DriverManager.getConnection(url, username, password);
     }
     
+    private PooledConnection createPooledConnection() throws SQLException {
+        Connection physical = createNewConnection();
+        if (queryTracer != null) {
+            physical = queryTracer.wrap(physical);
+        }
+        StatementCache statementCache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses, statementCacheEvictions)
+                : null;
+        PooledConnection pooled = new PooledConnection(this, physical, statementCache);
+        connectionsCreated.incrementAndGet();
+        return pooled;
+    }
+    
     public Connection getConnection() throws SQLException {
-        Connection connection = connectionPool.poll();
-        if (connection == null || connection.isClosed()) {
-            connection = createNewConnection();
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down", "08003");
+        }
+        
+        waitingThreads.incrementAndGet();
+        long waitStart = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            borrowWait.record(System.nanoTime() - waitStart);
+            if (!acquired) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a connection "
+                        + "(active=" + getActiveCount() + ", max=" + maxPoolSize + ")", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", "08001", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+        
+        try {
+            PooledConnection pooled = takeValidConnection();
+            borrowedConnections.add(pooled);
+            return pooled.borrow(leakDetectionThresholdMillis > 0);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    private void registerMetrics() {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("store_db_pool_active_connections", "Connections currently borrowed", this::getActiveCount);
+        registry.gauge("store_db_pool_idle_connections", "Connections idle in the pool", this::getIdleCount);
+        registry.gauge("store_db_pool_waiting_threads", "Threads waiting for a connection", this::getWaitingCount);
+        registry.gauge("store_db_pool_max_connections", "Configured pool size", this::getMaxPoolSize);
+        registry.counter("store_db_pool_connections_created_total", "Physical connections opened",
+                this::getConnectionsCreated);
+        registry.counter("store_db_pool_connections_destroyed_total", "Physical connections closed",
+                this::getConnectionsDestroyed);
+        registry.counter("store_db_pool_borrow_timeouts_total", "Borrows that gave up after max wait",
+                this::getBorrowTimeouts);
+        registry.counter("store_db_statement_cache_hits_total", "Prepared statements reused from the cache",
+                this::getStatementCacheHits);
+        registry.counter("store_db_statement_cache_misses_total", "Prepared statements created",
+                this::getStatementCacheMisses);
+    }
+    
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (pooled.isValid(validationTimeoutSeconds)) {
+                return pooled;
+            }
+            logger.warn("Discarding invalid connection found in pool");
+            destroy(pooled);
+        }
+        return createPooledConnection();
+    }
+    
+    // Called by PooledConnection when the borrower closes its handle
+    void returnConnection(PooledConnection pooled) {
+        if (!borrowedConnections.remove(pooled)) {
+            return;
+        }
+        try {
+            if (shutdown || !pooled.reset() || idleConnections.size() >= maxIdle) {
+                destroy(pooled);
+            } else {
+                idleConnections.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
         }
-        return connection;
     }
     
     public void releaseConnection(Connection connection) {
         if (connection != null) {
             try {
-                if (!connection.isClosed() && connectionPool.size() < maxPoolSize) {
-                    connectionPool.offer(connection);
-                } else {
-                    connection.close();
-                }
+                connection.close();
             } catch (SQLException e) {
                 logger.error("Error releasing connection", e);
             }
         }
     }
     
-    private void createTables() {
-        String[] createTableQueries = {
-            // Customer table
-            """
-            CREATE TABLE customer (
-                id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY (START WITH 1, INCREMENT BY 1),
-                name VARCHAR(100) NOT NULL,
-                email VARCHAR(100) NOT NULL UNIQUE,
-                contact VARCHAR(20),
-                address VARCHAR(500),
-                created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                PRIMARY KEY (id)
-            )
-            """,
-            
-            // Login table
-            """
-            CREATE TABLE login (
-                login_id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY (START WITH 1, INCREMENT BY 1),
-                email VARCHAR(100) NOT NULL UNIQUE,
-                password_hash VARCHAR(255) NOT NULL,
-                user_type VARCHAR(20) NOT NULL CHECK (user_type IN ('Customer', 'Admin')),
-                status VARCHAR(20) NOT NULL CHECK (status IN ('Active', 'Inactive')),
-                created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                PRIMARY KEY (login_id)
-            )
-            """,
-            
-            // Product table
-            """
-            CREATE TABLE product (
-                product_id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY (START WITH 1, INCREMENT BY 1),
-                name VARCHAR(200) NOT NULL,
-                description VARCHAR(1000),
-                company VARCHAR(100),
-                price DECIMAL(10,2) NOT NULL,
-                stock INTEGER NOT NULL DEFAULT 0,
-                created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                PRIMARY KEY (product_id)
-            )
-            """,
-            
-            // Order table
-            """
-            CREATE TABLE orders (
-                order_id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY (START WITH 1, INCREMENT BY 1),
-                customer_id INTEGER NOT NULL,
-                order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                status VARCHAR(20) NOT NULL CHECK (status IN ('Cart', 'Placed', 'Processing', 'Shipped', 'Delivered', 'Cancelled')),
-                total_amount DECIMAL(10,2) DEFAULT 0.00,
-                PRIMARY KEY (order_id),
-                FOREIGN KEY (customer_id) REFERENCES customer(id)
-            )
-            """,
-            
-            // Order Item table
-            """
-            CREATE TABLE order_item (
-                order_item_id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY (START WITH 1, INCREMENT BY 1),
-                order_id INTEGER NOT NULL,
-                product_id INTEGER NOT NULL,
-                quantity INTEGER NOT NULL,
-                price_at_order DECIMAL(10,2) NOT NULL,
-                PRIMARY KEY (order_item_id),
-                FOREIGN KEY (order_id) REFERENCES orders(order_id),
-                FOREIGN KEY (product_id) REFERENCES product(product_id)
-            )
-            """
-        };
+    private void destroy(PooledConnection pooled) {
+        pooled.closePhysical();
+        connectionsDestroyed.incrementAndGet();
+    }
+    
+    private void runMaintenance() {
+        try {
+            evictIdleConnections();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            logger.error("Connection pool maintenance failed", e);
+        }
+    }
+    
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        // Oldest idle connections sit at the tail because returns go to the head
+        PooledConnection candidate;
+        while (idleConnections.size() > minIdle && (candidate = idleConnections.peekLast()) != null
+                && now - candidate.getLastReturnedAt() > idleTimeoutMillis) {
+            if (idleConnections.removeLastOccurrence(candidate)) {
+                destroy(candidate);
+            }
+        }
         
-        try (Connection conn = getConnection()) {
-            for (String query : createTableQueries) {
-                try (Statement stmt = conn.createStatement()) {
-                    stmt.execute(query);
-                    logger.info("Table created successfully");
-                } catch (SQLException e) {
-                    if (e.getSQLState().equals("X0Y32")) {
-                        logger.info("Table already exists, skipping creation");
-                    } else {
-                        logger.error("Error creating table: {}", e.getMessage());
-                    }
+        // Each new connection is opened under a permit, like a borrow, so the pool never exceeds maxPoolSize
+        while (!shutdown && idleConnections.size() < minIdle && permits.tryAcquire()) {
+            try {
+                if (getTotalCount() >= maxPoolSize) {
+                    break;
                 }
+                idleConnections.offerLast(createPooledConnection());
+            } catch (SQLException e) {
+                logger.warn("Unable to replenish idle connections: {}", e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+    
+    private void detectLeaks() {
+        if (leakDetectionThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowedConnections) {
+            long heldFor = now - pooled.getBorrowedAt();
+            if (heldFor > leakDetectionThresholdMillis && !pooled.isLeakReported()) {
+                pooled.markLeakReported();
+                logger.warn("Possible connection leak: connection held for {} ms", heldFor, pooled.getBorrowerStack());
             }
-        } catch (SQLException e) {
-            logger.error("Error creating tables", e);
         }
     }
     
+    public int getActiveCount() {
+        return borrowedConnections.size();
+    }
+    
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+    
+    public int getWaitingCount() {
+        return waitingThreads.get();
+    }
+    
+    public int getTotalCount() {
+        return getActiveCount() + getIdleCount();
+    }
+    
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+    
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+    
+    // Empty when jdbc.trace.enabled is false or both the slow log and sampling are off
+    public Optional<QueryTracer> getQueryTracer() {
+        return Optional.ofNullable(queryTracer);
+    }
+    
+    public long getConnectionsCreated() {
+        return connectionsCreated.get();
+    }
+    
+    public long getConnectionsDestroyed() {
+        return connectionsDestroyed.get();
+    }
+    
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+    
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+    
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+    
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.get();
+    }
+    
     public void shutdown() {
+        shutdown = true;
+        evictor.shutdownNow();
+        
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        if (!borrowedConnections.isEmpty()) {
+            logger.warn("Shutting down with {} connections still borrowed", borrowedConnections.size());
+        }
+        
+        // Shutdown Derby
         try {
-            while (!connectionPool.isEmpty()) {
-                Connection conn = connectionPool.poll();
-                if (conn != null && !conn.isClosed()) {
-                    conn.close();
-                }
-            }
-            
-            // Shutdown Derby
-            try {
-                DriverManager.getConnection("jdbc:derby:;shutdown=true");
-            } catch (SQLException e) {
-                if ("XJ015".equals(e.getSQLState())) {
-                    logger.info("Derby shut down normally");
-                } else {
-                    logger.error("Derby did not shut down normally", e);
-                }
-            }
+            DriverManager.getConnection("jdbc:derby:;shutdown=true");
         } catch (SQLException e) {
-            logger.error("Error during shutdown", e);
+            if ("XJ015".equals(e.getSQLState())) {
+                logger.info("Derby shut down normally");
+            } else {
+                logger.error("Derby did not shut down normally", e);
+            }
         }
     }
 }
\ No newline at end of file
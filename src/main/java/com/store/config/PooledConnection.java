@@ -0,0 +1,159 @@
+package com.store.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class PooledConnection implements InvocationHandler {
+    private static final Logger logger = LoggerFactory.getLogger(PooledConnection.class);
+    
+    private final DerbyConnectionManager manager;
+    private final Connection physicalConnection;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowerStack;
+    private volatile boolean leakReported;
+    private Connection handle;
+    private boolean logicallyClosed = true;
+    
+    PooledConnection(DerbyConnectionManager manager, Connection physicalConnection, StatementCache statementCache) {
+        this.manager = manager;
+        this.physicalConnection = physicalConnection;
+        this.statementCache = statementCache;
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+    
+    synchronized Connection borrow(boolean captureStack) {
+        logicallyClosed = false;
+        leakReported = false;
+        borrowedAt = System.currentTimeMillis();
+        borrowerStack = captureStack ? new Throwable("Connection borrowed here") : null;
+        handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, this);
+        return handle;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        synchronized (this) {
+            if (proxy != handle || logicallyClosed) {
+                // A stale handle from an earlier borrow must never reach the physical connection
+                switch (name) {
+                    case "close": return null;
+                    case "isClosed": return true;
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "toString": return "PooledConnection[closed]";
+                    default: throw new SQLException("Connection is closed", "08003");
+                }
+            }
+            switch (name) {
+                case "close":
+                    logicallyClosed = true;
+                    handle = null;
+                    break;
+                case "isClosed":
+                    return false;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physicalConnection + "]";
+                case "prepareStatement":
+                    if (statementCache != null && isCacheable(args)) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return statementCache.prepare(handle, (String) args[0], autoGeneratedKeys);
+                    }
+                    return invokePhysical(method, args);
+                default:
+                    return invokePhysical(method, args);
+            }
+        }
+        manager.returnConnection(this);
+        return null;
+    }
+    
+    private Object invokePhysical(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(physicalConnection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    // Only the plain and generated-keys overloads are cached; cursor options and column lists go straight through
+    private static boolean isCacheable(Object[] args) {
+        return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+    }
+    
+    // Restores the physical connection to a clean state before it goes back to the idle queue
+    boolean reset() {
+        try {
+            if (physicalConnection.isClosed()) {
+                return false;
+            }
+            if (statementCache != null) {
+                statementCache.closeCheckedOut();
+            }
+            if (!physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            if (physicalConnection.isReadOnly()) {
+                physicalConnection.setReadOnly(false);
+            }
+            physicalConnection.clearWarnings();
+            lastReturnedAt = System.currentTimeMillis();
+            borrowerStack = null;
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Discarding pooled connection that could not be reset: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return physicalConnection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+        try {
+            physicalConnection.close();
+        } catch (SQLException e) {
+            logger.warn("Error closing physical connection: {}", e.getMessage());
+        }
+    }
+    
+    Connection getPhysicalConnection() { return physicalConnection; }
+    
+    long getCreatedAt() { return createdAt; }
+    
+    long getLastReturnedAt() { return lastReturnedAt; }
+    
+    long getBorrowedAt() { return borrowedAt; }
+    
+    Throwable getBorrowerStack() { return borrowerStack; }
+    
+    boolean isLeakReported() { return leakReported; }
+    
+    void markLeakReported() { leakReported = true; }
+}
@@ -0,0 +1,300 @@
+package com.store.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.store.dto.QueryTrace;
+import com.store.metrics.Counter;
+import com.store.metrics.LatencyHistogram;
+import com.store.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Times every statement the pool runs: execution, then the time spent iterating its result set,
+ * with the rows read or affected. A statement over the slow threshold is logged with its caller and
+ * bound parameters; a random fraction of all statements is kept in a ring buffer for
+ * /admin/sql-trace. Statements under the threshold that are not sampled cost a few nanoTime reads,
+ * and the caller lookup and parameter formatting only happen for the ones that are kept.
+ */
+public class QueryTracer {
+    private static final Logger logger = LoggerFactory.getLogger(QueryTracer.class);
+    private static final Pattern INSERT_VALUES = Pattern.compile(
+            "^\\s*insert\\s+into\\s+[\\w.\"]+\\s*\\(([^)]*)\\)\\s*values\\s*\\(([^)]*)\\)");
+    private static final int MAX_VALUE_LENGTH = 100;
+    // Frames of the pool and tracing layers, skipped when looking for who ran the statement
+    private static final String[] INFRASTRUCTURE = {
+            "com.store.config.PooledConnection", "com.store.config.StatementCache",
+            "com.store.config.QueryTracer", "com.store.config.TracedStatement", "com.store.metrics."};
+    
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final Set<String> redactedColumns;
+    private final TraceRing samples;
+    private final TraceRing slowStatements;
+    private final LatencyHistogram statementLatency;
+    private final Counter slowCount;
+    
+    QueryTracer(long slowThresholdMillis, double sampleRate, int bufferSize, Set<String> redactedColumns) {
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.sampleRate = sampleRate;
+        this.redactedColumns = redactedColumns;
+        this.samples = new TraceRing(bufferSize);
+        this.slowStatements = new TraceRing(bufferSize);
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.statementLatency = registry.histogram("store_db_statement_duration_seconds",
+                "Statement execution plus result set iteration");
+        this.slowCount = registry.counter("store_db_slow_statements_total",
+                "Statements over jdbc.slow.query.threshold.ms");
+    }
+    
+    // Wraps a physical connection so every statement it creates is traced
+    Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TracedConnection(physical));
+    }
+    
+    private class TracedConnection implements InvocationHandler {
+        private final Connection physical;
+        
+        TracedConnection(Connection physical) {
+            this.physical = physical;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            switch (method.getName()) {
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    return TracedStatement.wrap(QueryTracer.this, (Statement) result, method.getReturnType(), sql);
+                default:
+                    return result;
+            }
+        }
+    }
+    
+    // Called by TracedStatement once a statement and any result set iteration have finished
+    void completed(long startNanos, String sql, Object[] parameters, int parameterCount, int batchSize,
+                   long executeNanos, long fetchNanos, long rows, boolean failed) {
+        long total = executeNanos + fetchNanos;
+        statementLatency.record(total);
+        boolean slow = slowThresholdNanos > 0 && total >= slowThresholdNanos;
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!slow && !sampled) {
+            return;
+        }
+        
+        long elapsedSinceStart = System.nanoTime() - startNanos;
+        Instant startedAt = Instant.now().minusNanos(elapsedSinceStart);
+        String params = batchSize > 1
+                ? "batch of " + batchSize + ", last " + formatParameters(sql, parameters, parameterCount)
+                : formatParameters(sql, parameters, parameterCount);
+        QueryTrace trace = new QueryTrace(startedAt, findCaller(), sql, params,
+                executeNanos / 1000, fetchNanos / 1000, rows, failed);
+        if (slow) {
+            slowCount.increment();
+            slowStatements.add(trace);
+            logger.warn("Slow SQL: {} ms ({} ms execute, {} ms fetch, {} rows{}) in {}: {} params={}",
+                    total / 1_000_000, executeNanos / 1_000_000, fetchNanos / 1_000_000, rows,
+                    failed ? ", failed" : "", trace.getCaller(), sql, params);
+        }
+        if (sampled) {
+            samples.add(trace);
+        }
+    }
+    
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.store.") && !isInfrastructure(frame.getClassName()))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+    
+    private static boolean isInfrastructure(String className) {
+        for (String prefix : INFRASTRUCTURE) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String formatParameters(String sql, Object[] parameters, int parameterCount) {
+        if (sql == null || parameterCount == 0) {
+            return sql == null ? null : "[]";
+        }
+        Set<Integer> redacted = redactedParameters(sql);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= parameterCount; i++) {
+            if (i > 1) {
+                sb.append(", ");
+            }
+            if (redacted == null || redacted.contains(i)) {
+                sb.append("<redacted>");
+                continue;
+            }
+            Object value = parameters[i];
+            if (value == null) {
+                sb.append("NULL");
+            } else if (value instanceof byte[] bytes) {
+                sb.append('<').append(bytes.length).append(" bytes>");
+            } else if (value instanceof CharSequence || value instanceof java.util.Date
+                    || value instanceof java.time.temporal.Temporal) {
+                String text = value.toString();
+                sb.append('\'').append(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text)
+                        .append('\'');
+            } else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                sb.append('<').append(value.getClass().getSimpleName()).append('>');
+            }
+        }
+        return sb.append(']').toString();
+    }
+    
+    /*
+     * 1-based indexes of the placeholders bound to a redacted column, found from "column = ?"-style
+     * comparisons and assignments and from INSERT column lists. null means the statement names a
+     * redacted column in a shape this cannot follow, so every parameter is hidden.
+     */
+    private Set<Integer> redactedParameters(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        boolean mentionsRedacted = false;
+        for (String column : redactedColumns) {
+            mentionsRedacted |= lower.contains(column);
+        }
+        if (!mentionsRedacted) {
+            return Set.of();
+        }
+        
+        Set<Integer> redacted = new HashSet<>();
+        int placeholder = 0;
+        int scanFrom = 0;
+        Matcher insert = INSERT_VALUES.matcher(lower);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            if (columns.length != values.length) {
+                return null;
+            }
+            for (int i = 0; i < values.length; i++) {
+                String value = values[i].trim();
+                if (value.equals("?")) {
+                    placeholder++;
+                    if (redactedColumns.contains(unqualified(columns[i].trim()))) {
+                        redacted.add(placeholder);
+                    }
+                } else if (value.indexOf('?') >= 0) {
+                    return null;
+                }
+            }
+            scanFrom = insert.end();
+        }
+        
+        boolean inLiteral = false;
+        for (int i = scanFrom; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            } else if (c == '?' && !inLiteral) {
+                placeholder++;
+                if (redactedColumns.contains(columnBefore(lower, i))) {
+                    redacted.add(placeholder);
+                }
+            }
+        }
+        return redacted;
+    }
+    
+    // The identifier in front of "= ?", "<> ?" and the like, or "" if there is none
+    private static String columnBefore(String sql, int placeholderAt) {
+        int i = placeholderAt - 1;
+        while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+            i--;
+        }
+        int operatorEnd = i;
+        while (i >= 0 && "=<>!".indexOf(sql.charAt(i)) >= 0) {
+            i--;
+        }
+        if (i == operatorEnd) {
+            return "";
+        }
+        while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+            i--;
+        }
+        int end = i + 1;
+        while (i >= 0 && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                || sql.charAt(i) == '.' || sql.charAt(i) == '"')) {
+            i--;
+        }
+        return unqualified(sql.substring(i + 1, end));
+    }
+    
+    private static String unqualified(String column) {
+        String name = column.replace("\"", "");
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+    
+    // Newest first
+    public List<QueryTrace> getSamples() {
+        return samples.snapshot();
+    }
+    
+    // Newest first
+    public List<QueryTrace> getSlowStatements() {
+        return slowStatements.snapshot();
+    }
+    
+    public long getSlowThresholdMillis() {
+        return slowThresholdNanos / 1_000_000;
+    }
+    
+    public double getSampleRate() {
+        return sampleRate;
+    }
+    
+    private static final class TraceRing {
+        private final QueryTrace[] entries;
+        private long written;
+        
+        TraceRing(int size) {
+            entries = new QueryTrace[Math.max(1, size)];
+        }
+        
+        synchronized void add(QueryTrace trace) {
+            entries[(int) (written++ % entries.length)] = trace;
+        }
+        
+        synchronized List<QueryTrace> snapshot() {
+            int count = (int) Math.min(written, entries.length);
+            List<QueryTrace> traces = new ArrayList<>(count);
+            for (long i = written - 1; i >= written - count; i--) {
+                traces.add(entries[(int) (i % entries.length)]);
+            }
+            return traces;
+        }
+    }
+}
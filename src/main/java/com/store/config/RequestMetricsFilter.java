@@ -0,0 +1,94 @@
+package com.store.config;
+
+import com.store.metrics.LatencyHistogram;
+import com.store.metrics.MetricsRegistry;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletMapping;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Times every request by method, servlet mapping and status class. It is mapped first in web.xml so
+ * the figure includes the other filters. Async requests are timed until the AsyncContext completes
+ * rather than until the container thread is handed back. The path label is the url-pattern that
+ * matched (/order/*, /products), never the raw path, so the number of series is fixed by the
+ * deployment: everything the default servlet answers, 404 probes included, shares "/".
+ */
+public class RequestMetricsFilter implements Filter {
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private MetricsRegistry registry;
+    
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        registry = MetricsRegistry.getInstance();
+    }
+    
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        
+        if (!registry.isEnabled() || !(request instanceof HttpServletRequest httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(httpRequest, (HttpServletResponse) response, start);
+                    }
+                    
+                    @Override
+                    public void onTimeout(AsyncEvent event) {}
+                    
+                    @Override
+                    public void onError(AsyncEvent event) {}
+                    
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {}
+                });
+            } else {
+                record(httpRequest, (HttpServletResponse) response, start);
+            }
+        }
+    }
+    
+    private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+        long elapsed = System.nanoTime() - start;
+        String path = pathLabel(request);
+        String status = response.getStatus() / 100 + "xx";
+        String key = request.getMethod() + ' ' + path + ' ' + status;
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(key, k -> registry.histogram(
+                    "store_http_request_duration_seconds", "HTTP request latency",
+                    "method", request.getMethod(), "path", path, "status", status));
+        }
+        histogram.record(elapsed);
+    }
+    
+    private static String pathLabel(HttpServletRequest request) {
+        HttpServletMapping mapping = request.getHttpServletMapping();
+        if (mapping == null) {
+            return "other";
+        }
+        String pattern = mapping.getPattern();
+        return pattern == null || pattern.isEmpty() ? "/" : pattern;
+    }
+    
+    @Override
+    public void destroy() {
+        // Metrics stay registered for the life of the JVM
+    }
+}
@@ -0,0 +1,164 @@
+package com.store.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final String MIGRATION_PATH = "db/migration/";
+    private static final String VERSION_TABLE = "SCHEMA_VERSION";
+    
+    record Migration(int version, String description, String script) {}
+    
+    // Applied in order; a released migration must never be edited, add a new one instead
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "create tables", "V1__create_tables.sql"),
+        new Migration(2, "hot query indexes", "V2__hot_query_indexes.sql"),
+        new Migration(3, "product natural key index", "V3__product_natural_key_index.sql"),
+        new Migration(4, "inventory checkpoint", "V4__inventory_checkpoint.sql"),
+        new Migration(5, "sales rollups", "V5__sales_rollups.sql")
+    );
+    
+    private final DerbyConnectionManager connectionManager;
+    
+    public SchemaMigrator(DerbyConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+    
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+    
+    public synchronized void migrate() throws SQLException {
+        try (Connection conn = connectionManager.getConnection()) {
+            if (tableExists(conn, VERSION_TABLE) && getCurrentVersion(conn) >= getLatestVersion()) {
+                logger.info("Schema is current at version {}, skipping migrations", getLatestVersion());
+                return;
+            }
+            
+            createVersionTable(conn);
+            
+            for (Migration migration : MIGRATIONS) {
+                applyIfPending(conn, migration);
+            }
+        }
+    }
+    
+    private void applyIfPending(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            // Serializes migrators across JVMs sharing the database; held until commit
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("LOCK TABLE schema_version IN EXCLUSIVE MODE");
+            }
+            
+            if (getCurrentVersion(conn) >= migration.version()) {
+                conn.commit();
+                return;
+            }
+            
+            if (migration.version() == 1 && tableExists(conn, "PRODUCT")) {
+                // Databases created before migrations existed already have the V1 tables
+                logger.info("Existing schema detected, recording it as version 1");
+            } else {
+                logger.info("Applying schema migration V{}: {}", migration.version(), migration.description());
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : loadStatements(migration.script())) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            logger.error("Schema migration V{} failed", migration.version(), e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE schema_version (
+                    version INTEGER NOT NULL,
+                    description VARCHAR(200) NOT NULL,
+                    applied_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (version)
+                )
+                """);
+        } catch (SQLException e) {
+            // Another node may have created it between our check and now
+            if (!"X0Y32".equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+    }
+    
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(version) FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    private boolean tableExists(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getTables(null, null, tableName, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+    
+    private List<String> loadStatements(String script) throws SQLException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(MIGRATION_PATH + script)) {
+            if (input == null) {
+                throw new SQLException("Migration script not found: " + script);
+            }
+            
+            List<String> statements = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    current.setLength(current.lastIndexOf(";"));
+                    statements.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+            if (!current.toString().isBlank()) {
+                statements.add(current.toString());
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new SQLException("Unable to read migration script: " + script, e);
+        }
+    }
+}
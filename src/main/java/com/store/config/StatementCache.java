@@ -0,0 +1,197 @@
+package com.store.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    
+    record StatementKey(String sql, int autoGeneratedKeys) {}
+    
+    private final Connection physicalConnection;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    // Access-ordered so the eldest entry is always the least recently used idle statement
+    private final LinkedHashMap<StatementKey, CachedStatement> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<CachedStatement> checkedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    StatementCache(Connection physicalConnection, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physicalConnection = physicalConnection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+    
+    synchronized PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+        CachedStatement cached = idleStatements.remove(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            cached = new CachedStatement(key, physicalConnection.prepareStatement(sql, autoGeneratedKeys));
+        }
+        checkedOut.add(cached);
+        return cached.open(handle);
+    }
+    
+    private synchronized void release(CachedStatement cached) {
+        if (!checkedOut.remove(cached)) {
+            return;
+        }
+        if (!cached.resetForReuse() || idleStatements.containsKey(cached.key)) {
+            cached.closePhysical();
+            return;
+        }
+        idleStatements.put(cached.key, cached);
+        if (idleStatements.size() > maxSize) {
+            Iterator<CachedStatement> eldest = idleStatements.values().iterator();
+            eldest.next().closePhysical();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+    
+    // Statements the borrower never closed cannot be trusted for the next borrower
+    synchronized void closeCheckedOut() {
+        for (CachedStatement cached : checkedOut) {
+            cached.invalidate();
+            cached.closePhysical();
+        }
+        checkedOut.clear();
+    }
+    
+    synchronized void clear() {
+        closeCheckedOut();
+        for (CachedStatement cached : idleStatements.values()) {
+            cached.closePhysical();
+        }
+        idleStatements.clear();
+    }
+    
+    synchronized int size() {
+        return idleStatements.size();
+    }
+    
+    private class CachedStatement implements InvocationHandler {
+        private final StatementKey key;
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private Connection handle;
+        private PreparedStatement proxy;
+        
+        CachedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+        
+        synchronized PreparedStatement open(Connection handle) {
+            this.handle = handle;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+            return proxy;
+        }
+        
+        synchronized void invalidate() {
+            proxy = null;
+            handle = null;
+        }
+        
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            synchronized (this) {
+                if (target != proxy) {
+                    switch (name) {
+                        case "close": return null;
+                        case "isClosed": return true;
+                        case "equals": return target == args[0];
+                        case "hashCode": return System.identityHashCode(target);
+                        case "toString": return "CachedStatement[closed]";
+                        default: throw new SQLException("Statement is closed", "XJ012");
+                    }
+                }
+                switch (name) {
+                    case "close":
+                        invalidate();
+                        break;
+                    case "isClosed":
+                        return false;
+                    case "getConnection":
+                        return handle;
+                    case "equals":
+                        return target == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(target);
+                    case "toString":
+                        return "CachedStatement[" + key.sql() + "]";
+                    default:
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+            release(this);
+            return null;
+        }
+        
+        boolean resetForReuse() {
+            try {
+                ResultSet openResultSet = statement.getResultSet();
+                if (openResultSet != null) {
+                    openResultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                if (statement.getFetchSize() != defaultFetchSize) {
+                    statement.setFetchSize(defaultFetchSize);
+                }
+                if (statement.getMaxRows() != defaultMaxRows) {
+                    statement.setMaxRows(defaultMaxRows);
+                }
+                if (statement.getQueryTimeout() != defaultQueryTimeout) {
+                    statement.setQueryTimeout(defaultQueryTimeout);
+                }
+                return true;
+            } catch (SQLException e) {
+                logger.debug("Statement could not be reset for reuse: {}", e.getMessage());
+                return false;
+            }
+        }
+        
+        void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing cached statement: {}", e.getMessage());
+            }
+        }
+    }
+}
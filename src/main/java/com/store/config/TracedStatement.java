@@ -0,0 +1,207 @@
+package com.store.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+// Statement side of QueryTracer: remembers bound parameters, times executions and result set iteration
+class TracedStatement implements InvocationHandler {
+    private final QueryTracer tracer;
+    private final Statement statement;
+    private final String preparedSql;
+    private Object[] parameters = new Object[8];
+    private int parameterCount;
+    private int batchSize;
+    private TracedResultSet open;
+    
+    private TracedStatement(QueryTracer tracer, Statement statement, String preparedSql) {
+        this.tracer = tracer;
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+    }
+    
+    static Statement wrap(QueryTracer tracer, Statement statement, Class<?> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new TracedStatement(tracer, statement, preparedSql));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+            case "execute":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args);
+            case "getResultSet":
+                return currentResultSet();
+            case "clearParameters":
+                Arrays.fill(parameters, 0, parameterCount + 1, null);
+                parameterCount = 0;
+                break;
+            case "addBatch":
+                batchSize++;
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                break;
+            case "close":
+                finishOpen();
+                break;
+            default:
+                // setString(1, ...), setNull(2, ...) and friends; one-argument setters are statement options
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    bind(index, name.equals("setNull") ? null : args[1]);
+                }
+        }
+        return invokeTarget(method, args);
+    }
+    
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private void bind(int index, Object value) {
+        if (index < 1) {
+            return;
+        }
+        if (index >= parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+        }
+        parameters[index] = value;
+        parameterCount = Math.max(parameterCount, index);
+    }
+    
+    private Object execute(Method method, Object[] args) throws Throwable {
+        // Running the statement again implicitly closes its previous result set
+        finishOpen();
+        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+        String name = method.getName();
+        boolean batch = name.endsWith("Batch");
+        int executedBatchSize = batch ? batchSize : 0;
+        if (batch) {
+            batchSize = 0;
+        }
+        
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invokeTarget(method, args);
+        } catch (Throwable e) {
+            tracer.completed(start, sql, parameters, parameterCount, executedBatchSize,
+                    System.nanoTime() - start, 0, -1, true);
+            throw e;
+        }
+        long executeNanos = System.nanoTime() - start;
+        
+        if (result instanceof ResultSet resultSet) {
+            open = new TracedResultSet(resultSet, start, sql, executeNanos);
+            return open.proxy;
+        }
+        if (Boolean.TRUE.equals(result)) {
+            // execute() produced a result set; the caller fetches it with getResultSet()
+            open = new TracedResultSet(statement.getResultSet(), start, sql, executeNanos);
+            return result;
+        }
+        
+        long rows;
+        if (result instanceof int[] counts) {
+            rows = Arrays.stream(counts).filter(count -> count > 0).asLongStream().sum();
+        } else if (result instanceof long[] counts) {
+            rows = Arrays.stream(counts).filter(count -> count > 0).sum();
+        } else if (result instanceof Number count) {
+            rows = count.longValue();
+        } else {
+            rows = statement.getUpdateCount();
+        }
+        tracer.completed(start, sql, parameters, parameterCount, executedBatchSize, executeNanos, 0, rows, false);
+        return result;
+    }
+    
+    private Object currentResultSet() throws Throwable {
+        ResultSet current = statement.getResultSet();
+        if (open != null && current == open.resultSet) {
+            return open.proxy;
+        }
+        return current;
+    }
+    
+    private void finishOpen() {
+        if (open != null) {
+            open.finish();
+        }
+    }
+    
+    private class TracedResultSet implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final ResultSet proxy;
+        private final long start;
+        private final String sql;
+        private final long executeNanos;
+        // Parameters are copied now because the statement may be rebound before this result set is closed
+        private final Object[] boundParameters;
+        private final int boundCount;
+        private long fetchNanos;
+        private long rows;
+        private boolean finished;
+        
+        TracedResultSet(ResultSet resultSet, long start, String sql, long executeNanos) {
+            this.resultSet = resultSet;
+            this.proxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, this);
+            this.start = start;
+            this.sql = sql;
+            this.executeNanos = executeNanos;
+            this.boundParameters = Arrays.copyOf(parameters, parameterCount + 1);
+            this.boundCount = parameterCount;
+        }
+        
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long before = System.nanoTime();
+                    boolean hasRow = resultSet.next();
+                    fetchNanos += System.nanoTime() - before;
+                    if (hasRow) {
+                        rows++;
+                    } else {
+                        finish();
+                    }
+                    return hasRow;
+                case "close":
+                    finish();
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        
+        void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (open == this) {
+                open = null;
+            }
+            tracer.completed(start, sql, boundParameters, boundCount, 0, executeNanos, fetchNanos, rows, false);
+        }
+    }
+}
@@ -11,6 +11,8 @@ public interface CustomerDAO {
     Optional<Customer> findById(Integer id) throws DatabaseException;
     Optional<Customer> findByEmail(String email) throws DatabaseException;
     List<Customer> findAll() throws DatabaseException;
+    void forEach(RowCallback<Customer> callback) throws DatabaseException;
+    void forEach(int fetchSize, RowCallback<Customer> callback) throws DatabaseException;
     Customer update(Customer customer) throws DatabaseException;
     boolean delete(Integer id) throws DatabaseException;
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.store.dao;
 
+import com.store.cache.ProductCache;
 import com.store.dao.impl.*;
+import com.store.metrics.MeteredProxy;
 
 public class DAOFactory {
     private static DAOFactory instance;
@@ -14,23 +16,33 @@ public class DAOFactory {
         return instance;
     }
     
+    // Every DAO handed out is metered; with the cache on, both the cache and the database behind it are
     public CustomerDAO getCustomerDAO() {
-        return new CustomerDAOImpl();
+        return MeteredProxy.wrap(CustomerDAO.class, new CustomerDAOImpl());
     }
     
     public LoginDAO getLoginDAO() {
-        return new LoginDAOImpl();
+        return MeteredProxy.wrap(LoginDAO.class, new LoginDAOImpl());
     }
     
     public ProductDAO getProductDAO() {
-        return new ProductDAOImpl();
+        ProductDAO dao = MeteredProxy.wrap(ProductDAO.class, new ProductDAOImpl());
+        ProductCache cache = ProductCache.getInstance();
+        if (cache.isEnabled()) {
+            return MeteredProxy.wrap(ProductDAO.class, new CachingProductDAO(dao, cache));
+        }
+        return dao;
     }
     
     public OrderDAO getOrderDAO() {
-        return new OrderDAOImpl();
+        return MeteredProxy.wrap(OrderDAO.class, new OrderDAOImpl());
     }
     
     public OrderItemDAO getOrderItemDAO() {
-        return new OrderItemDAOImpl();
+        return MeteredProxy.wrap(OrderItemDAO.class, new OrderItemDAOImpl());
+    }
+    
+    public SalesReportDAO getSalesReportDAO() {
+        return MeteredProxy.wrap(SalesReportDAO.class, new SalesReportDAOImpl());
     }
 }
\ No newline at end of file
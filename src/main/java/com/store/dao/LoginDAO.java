@@ -8,10 +8,15 @@ import java.util.Optional;
 
 public interface LoginDAO {
     Login save(Login login) throws DatabaseException;
+    // False, without throwing, when the email is already registered
+    boolean saveIfAbsent(Login login) throws DatabaseException;
     Optional<Login> findById(Integer id) throws DatabaseException;
     Optional<Login> findByEmail(String email) throws DatabaseException;
     List<Login> findAll() throws DatabaseException;
+    void forEach(RowCallback<Login> callback) throws DatabaseException;
+    void forEach(int fetchSize, RowCallback<Login> callback) throws DatabaseException;
     Login update(Login login) throws DatabaseException;
+    boolean updatePasswordHash(Integer loginId, String expectedHash, String newHash) throws DatabaseException;
     boolean delete(Integer id) throws DatabaseException;
     boolean existsByEmail(String email) throws DatabaseException;
 }
\ No newline at end of file
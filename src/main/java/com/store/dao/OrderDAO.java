@@ -1,15 +1,20 @@
 package com.store.dao;
 
+import com.store.dto.OrderHistoryPage;
 import com.store.model.Order;
 import com.store.util.DatabaseException;
+import com.store.util.InsufficientStockException;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderDAO {
     Order save(Order order) throws DatabaseException;
+    // Places the cart's lines at current prices; a cart without an ID is placed as a new order
+    Order checkout(Order cart) throws DatabaseException, InsufficientStockException;
     Optional<Order> findById(Integer id) throws DatabaseException;
     List<Order> findByCustomerId(Integer customerId) throws DatabaseException;
+    OrderHistoryPage findHistory(Integer customerId, String cursor, int pageSize) throws DatabaseException;
     List<Order> findAll() throws DatabaseException;
     Order update(Order order) throws DatabaseException;
     boolean delete(Integer id) throws DatabaseException;
@@ -0,0 +1,64 @@
+package com.store.dao;
+
+import com.store.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-process fan-out of committed product writes to derived structures such as the search index
+public class ProductChangeEvents {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeEvents.class);
+    private static final List<ProductChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    private ProductChangeEvents() {}
+    
+    public static void register(ProductChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public static void unregister(ProductChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    public static void fireSaved(Product product) {
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.productSaved(product);
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed on save of {}", product.getProductId(), e);
+            }
+        }
+    }
+    
+    public static void fireUpdated(Product product) {
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.productUpdated(product);
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed on update of {}", product.getProductId(), e);
+            }
+        }
+    }
+    
+    public static void fireDeleted(Integer productId) {
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.productDeleted(productId);
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed on delete of {}", productId, e);
+            }
+        }
+    }
+    
+    public static void fireReloaded() {
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.productsReloaded();
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed on reload", e);
+            }
+        }
+    }
+}
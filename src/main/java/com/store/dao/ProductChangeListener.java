@@ -0,0 +1,11 @@
+package com.store.dao;
+
+import com.store.model.Product;
+
+public interface ProductChangeListener {
+    void productSaved(Product product);
+    void productUpdated(Product product);
+    void productDeleted(Integer productId);
+    // Many rows changed at once without per-row events (bulk loads); resynchronize from the table
+    void productsReloaded();
+}
@@ -1,19 +1,33 @@
 package com.store.dao;
 
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.ProductPage;
+import com.store.dto.ProductSearchResult;
 import com.store.model.Product;
 import com.store.util.DatabaseException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductDAO {
     Product save(Product product) throws DatabaseException;
+    BulkLoadResult saveAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException;
+    BulkLoadResult mergeAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException;
     Optional<Product> findById(Integer id) throws DatabaseException;
     List<Product> findAll() throws DatabaseException;
+    void forEach(RowCallback<Product> callback) throws DatabaseException;
+    void forEach(int fetchSize, RowCallback<Product> callback) throws DatabaseException;
     List<Product> findAll(int page, int pageSize) throws DatabaseException;
+    ProductPage findPage(String cursor, int pageSize) throws DatabaseException;
     Product update(Product product) throws DatabaseException;
     boolean delete(Integer id) throws DatabaseException;
     int getTotalCount() throws DatabaseException;
     List<Product> searchByName(String name) throws DatabaseException;
+    ProductSearchResult search(String query, int page, int pageSize) throws DatabaseException;
+    List<Product> findByIds(List<Integer> ids) throws DatabaseException;
+    Map<Integer, Integer> findOrderCounts() throws DatabaseException;
     boolean updateStock(Integer productId, Integer newStock) throws DatabaseException;
+    Optional<Integer> findStockById(Integer productId) throws DatabaseException;
 }
\ No newline at end of file
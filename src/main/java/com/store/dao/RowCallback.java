@@ -0,0 +1,7 @@
+package com.store.dao;
+
+@FunctionalInterface
+public interface RowCallback<T> {
+    // Called once per row while the cursor is open; the row object is not retained by the DAO
+    void process(T row) throws Exception;
+}
@@ -0,0 +1,22 @@
+package com.store.dao;
+
+import com.store.dto.CustomerSales;
+import com.store.dto.DailySales;
+import com.store.dto.OrderStatusSummary;
+import com.store.dto.ProductSales;
+import com.store.util.DatabaseException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Admin reporting over the sales rollup tables; none of these read orders or order_item
+public interface SalesReportDAO {
+    // Days from..to inclusive, oldest first; days without sales are left out
+    List<DailySales> findDailySales(LocalDate from, LocalDate to) throws DatabaseException;
+    // Best sellers by revenue over from..to inclusive
+    List<ProductSales> findTopProducts(LocalDate from, LocalDate to, int limit) throws DatabaseException;
+    List<CustomerSales> findTopCustomers(int limit) throws DatabaseException;
+    List<OrderStatusSummary> findStatusSummary() throws DatabaseException;
+    // Recomputes every rollup from orders and order_item; returns the rollup rows written
+    long rebuildRollups() throws DatabaseException;
+}
@@ -0,0 +1,146 @@
+package com.store.dao.impl;
+
+import com.store.cache.ProductCache;
+import com.store.dao.ProductDAO;
+import com.store.dao.RowCallback;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.ProductPage;
+import com.store.dto.ProductSearchResult;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class CachingProductDAO implements ProductDAO {
+    private final ProductDAO delegate;
+    private final ProductCache cache;
+    
+    public CachingProductDAO(ProductDAO delegate, ProductCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+    
+    @Override
+    public Product save(Product product) throws DatabaseException {
+        return delegate.save(product);
+    }
+    
+    @Override
+    public BulkLoadResult saveAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException {
+        try {
+            return delegate.saveAll(rows, result);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+    
+    // Merged rows fire per-product update events, which evict exactly the entries they changed
+    @Override
+    public BulkLoadResult mergeAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException {
+        return delegate.mergeAll(rows, result);
+    }
+    
+    @Override
+    public Optional<Product> findById(Integer id) throws DatabaseException {
+        ProductCache.Lookup lookup = cache.get(id);
+        switch (lookup.getFreshness()) {
+            case FRESH:
+                return Optional.of(lookup.getProduct());
+            case STALE_STOCK: {
+                long started = System.nanoTime();
+                Optional<Integer> stock = delegate.findStockById(id);
+                if (stock.isEmpty()) {
+                    cache.invalidate(id);
+                    return Optional.empty();
+                }
+                cache.refreshStock(id, stock.get(), started);
+                Product product = lookup.getProduct();
+                product.setStock(stock.get());
+                return Optional.of(product);
+            }
+            default: {
+                long started = System.nanoTime();
+                Optional<Product> product = delegate.findById(id);
+                product.ifPresent(p -> cache.put(p, started));
+                return product;
+            }
+        }
+    }
+    
+    @Override
+    public List<Product> findAll() throws DatabaseException {
+        return delegate.findAll();
+    }
+    
+    @Override
+    public void forEach(RowCallback<Product> callback) throws DatabaseException {
+        delegate.forEach(callback);
+    }
+    
+    @Override
+    public void forEach(int fetchSize, RowCallback<Product> callback) throws DatabaseException {
+        delegate.forEach(fetchSize, callback);
+    }
+    
+    @Override
+    public List<Product> findAll(int page, int pageSize) throws DatabaseException {
+        return delegate.findAll(page, pageSize);
+    }
+    
+    @Override
+    public ProductPage findPage(String cursor, int pageSize) throws DatabaseException {
+        return delegate.findPage(cursor, pageSize);
+    }
+    
+    @Override
+    public Product update(Product product) throws DatabaseException {
+        return delegate.update(product);
+    }
+    
+    @Override
+    public boolean delete(Integer id) throws DatabaseException {
+        return delegate.delete(id);
+    }
+    
+    @Override
+    public int getTotalCount() throws DatabaseException {
+        return delegate.getTotalCount();
+    }
+    
+    @Override
+    public List<Product> searchByName(String name) throws DatabaseException {
+        return delegate.searchByName(name);
+    }
+    
+    @Override
+    public ProductSearchResult search(String query, int page, int pageSize) throws DatabaseException {
+        return delegate.search(query, page, pageSize);
+    }
+    
+    @Override
+    public List<Product> findByIds(List<Integer> ids) throws DatabaseException {
+        return delegate.findByIds(ids);
+    }
+    
+    @Override
+    public Map<Integer, Integer> findOrderCounts() throws DatabaseException {
+        return delegate.findOrderCounts();
+    }
+    
+    @Override
+    public boolean updateStock(Integer productId, Integer newStock) throws DatabaseException {
+        try {
+            return delegate.updateStock(productId, newStock);
+        } finally {
+            cache.invalidate(productId);
+        }
+    }
+    
+    @Override
+    public Optional<Integer> findStockById(Integer productId) throws DatabaseException {
+        return delegate.findStockById(productId);
+    }
+}
@@ -2,6 +2,7 @@ package com.store.dao.impl;
 
 import com.store.config.DerbyConnectionManager;
 import com.store.dao.CustomerDAO;
+import com.store.dao.RowCallback;
 import com.store.model.Customer;
 import com.store.util.DatabaseException;
 import org.slf4j.Logger;
@@ -117,6 +118,35 @@ public class CustomerDAOImpl implements CustomerDAO {
         }
     }
     
+    @Override
+    public void forEach(RowCallback<Customer> callback) throws DatabaseException {
+        forEach(connectionManager.getStreamFetchSize(), callback);
+    }
+    
+    @Override
+    public void forEach(int fetchSize, RowCallback<Customer> callback) throws DatabaseException {
+        String sql = "SELECT * FROM customer ORDER BY id";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setFetchSize(fetchSize);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.process(mapRowToCustomer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error streaming all customers", e);
+            throw new DatabaseException("Error streaming all customers: " + e.getMessage(), e);
+        } catch (DatabaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error processing streamed customer: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public Customer update(Customer customer) throws DatabaseException {
         String sql = "UPDATE customer SET name = ?, email = ?, contact = ?, address = ? WHERE id = ?";
@@ -1,7 +1,9 @@
 package com.store.dao.impl;
 
+import com.store.cache.RegisteredEmailFilter;
 import com.store.config.DerbyConnectionManager;
 import com.store.dao.LoginDAO;
+import com.store.dao.RowCallback;
 import com.store.dto.Status;
 import com.store.dto.UserType;
 import com.store.model.Login;
@@ -17,14 +19,18 @@ import java.util.Optional;
 public class LoginDAOImpl implements LoginDAO {
     private static final Logger logger = LoggerFactory.getLogger(LoginDAOImpl.class);
     private final DerbyConnectionManager connectionManager;
+    private final RegisteredEmailFilter emailFilter;
     
     public LoginDAOImpl() {
         this.connectionManager = DerbyConnectionManager.getInstance();
+        this.emailFilter = RegisteredEmailFilter.getInstance();
     }
     
     @Override
     public Login save(Login login) throws DatabaseException {
         String sql = "INSERT INTO login (email, password_hash, user_type, status) VALUES (?, ?, ?, ?)";
+        // Added before the insert so no committed email is ever missing from the filter
+        emailFilter.add(login.getEmail());
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -57,6 +63,39 @@ public class LoginDAOImpl implements LoginDAO {
         }
     }
     
+    @Override
+    public boolean saveIfAbsent(Login login) throws DatabaseException {
+        // The unique constraint on email is the existence check: one round trip, no check-then-insert race
+        String sql = "INSERT INTO login (email, password_hash, user_type, status) VALUES (?, ?, ?, ?)";
+        emailFilter.add(login.getEmail());
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setString(1, login.getEmail());
+            pstmt.setString(2, login.getPasswordHash());
+            pstmt.setString(3, login.getUserType().getValue());
+            pstmt.setString(4, login.getStatus().getValue());
+            pstmt.executeUpdate();
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    login.setLoginId(generatedKeys.getInt(1));
+                } else {
+                    throw new DatabaseException("Creating login failed, no ID obtained.");
+                }
+            }
+            
+            return true;
+        } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState())) {
+                return false;
+            }
+            logger.error("Error saving login", e);
+            throw new DatabaseException("Error saving login: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public Optional<Login> findById(Integer id) throws DatabaseException {
         String sql = "SELECT * FROM login WHERE login_id = ?";
@@ -121,9 +160,39 @@ public class LoginDAOImpl implements LoginDAO {
         }
     }
     
+    @Override
+    public void forEach(RowCallback<Login> callback) throws DatabaseException {
+        forEach(connectionManager.getStreamFetchSize(), callback);
+    }
+    
+    @Override
+    public void forEach(int fetchSize, RowCallback<Login> callback) throws DatabaseException {
+        String sql = "SELECT * FROM login ORDER BY login_id";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setFetchSize(fetchSize);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.process(mapRowToLogin(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error streaming all logins", e);
+            throw new DatabaseException("Error streaming all logins: " + e.getMessage(), e);
+        } catch (DatabaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error processing streamed login: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public Login update(Login login) throws DatabaseException {
         String sql = "UPDATE login SET email = ?, password_hash = ?, user_type = ?, status = ? WHERE login_id = ?";
+        emailFilter.add(login.getEmail());
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -146,6 +215,25 @@ public class LoginDAOImpl implements LoginDAO {
         }
     }
     
+    @Override
+    public boolean updatePasswordHash(Integer loginId, String expectedHash, String newHash) throws DatabaseException {
+        // Compare-and-set: a password change that landed in the meantime must not be overwritten
+        String sql = "UPDATE login SET password_hash = ? WHERE login_id = ? AND password_hash = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, loginId);
+            pstmt.setString(3, expectedHash);
+            
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            logger.error("Error updating password hash", e);
+            throw new DatabaseException("Error updating password hash: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM login WHERE login_id = ?";
@@ -166,6 +254,9 @@ public class LoginDAOImpl implements LoginDAO {
     @Override
     public boolean existsByEmail(String email) throws DatabaseException {
         String sql = "SELECT COUNT(*) FROM login WHERE email = ?";
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -173,11 +264,12 @@ public class LoginDAOImpl implements LoginDAO {
             pstmt.setString(1, email);
             
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return true;
                 }
             }
             
+            emailFilter.recordFalsePositive();
             return false;
         } catch (SQLException e) {
             logger.error("Error checking if email exists", e);
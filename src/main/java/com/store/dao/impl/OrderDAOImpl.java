@@ -0,0 +1,604 @@
+package com.store.dao.impl;
+
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.OrderDAO;
+import com.store.dto.OrderCursor;
+import com.store.dto.OrderHistoryPage;
+import com.store.dto.OrderStatus;
+import com.store.inventory.InventoryReservationEngine;
+import com.store.model.Order;
+import com.store.model.OrderItem;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import com.store.util.InsufficientStockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class OrderDAOImpl implements OrderDAO {
+    private static final Logger logger = LoggerFactory.getLogger(OrderDAOImpl.class);
+    private final DerbyConnectionManager connectionManager;
+    private final InventoryReservationEngine inventory;
+    
+    public OrderDAOImpl() {
+        this.connectionManager = DerbyConnectionManager.getInstance();
+        this.inventory = InventoryReservationEngine.getInstance();
+    }
+    
+    @Override
+    public Order save(Order order) throws DatabaseException {
+        String sql = "INSERT INTO orders (customer_id, order_date, status, total_amount) VALUES (?, ?, ?, ?)";
+        LocalDateTime orderDate = LocalDateTime.now();
+        BigDecimal total = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            // Only a cart can skip the sales rollups; anything else is counted in the same transaction
+            boolean rolledUp = order.getStatus() != OrderStatus.Cart;
+            conn.setAutoCommit(!rolledUp);
+            try {
+                pstmt.setInt(1, order.getCustomerId());
+                pstmt.setTimestamp(2, Timestamp.valueOf(orderDate));
+                pstmt.setString(3, order.getStatus().getValue());
+                pstmt.setBigDecimal(4, total);
+                
+                int rowsAffected = pstmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new DatabaseException("Creating order failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        order.setOrderId(generatedKeys.getInt(1));
+                    } else {
+                        throw new DatabaseException("Creating order failed, no ID obtained.");
+                    }
+                }
+                
+                if (rolledUp) {
+                    SalesRollups.apply(conn, order.getOrderId(), null, new SalesRollups.OrderState(
+                            order.getCustomerId(), orderDate, order.getStatus(), total), List.of());
+                    conn.commit();
+                }
+            } catch (SQLException | DatabaseException | RuntimeException e) {
+                if (rolledUp) {
+                    conn.rollback();
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            order.setOrderDate(orderDate);
+            return order;
+        } catch (SQLException e) {
+            logger.error("Error saving order", e);
+            throw new DatabaseException("Error saving order: " + e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Places an order in one transaction and a fixed number of round trips, whatever the cart size:
+     * one batch of conditional stock decrements, one price lookup, one order insert/update and one
+     * batch of line inserts, plus the sales rollup rows. The decrement only succeeds while enough
+     * stock is left, so two checkouts racing for the last units cannot both win, and it commits or
+     * rolls back with the order. Hot products are reserved by the inventory engine instead and
+     * journaled before the commit.
+     */
+    @Override
+    public Order checkout(Order cart) throws DatabaseException, InsufficientStockException {
+        if (cart.getOrderItems() == null || cart.getOrderItems().isEmpty()) {
+            throw new IllegalArgumentException("Cannot check out an empty cart");
+        }
+        
+        // Duplicate lines are merged, and rows are locked in product order so concurrent checkouts cannot deadlock
+        SortedMap<Integer, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : cart.getOrderItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        // Hot products are reserved in memory by the inventory engine; the rest are decremented in the database
+        SortedMap<Integer, Integer> hot = new TreeMap<>();
+        SortedMap<Integer, Integer> cold = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            (inventory.isHot(entry.getKey()) ? hot : cold).put(entry.getKey(), entry.getValue());
+        }
+        if (!hot.isEmpty()) {
+            List<Integer> shortages = inventory.tryReserve(hot);
+            if (!shortages.isEmpty()) {
+                throw new InsufficientStockException("Not enough stock for products " + shortages, shortages);
+            }
+        }
+        
+        Integer journaledOrderId = null;
+        boolean committed = false;
+        try (Connection conn = connectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> shortages = cold.isEmpty() ? List.of() : decrementStock(conn, cold);
+                if (!shortages.isEmpty()) {
+                    throw new InsufficientStockException("Not enough stock for products " + shortages, shortages);
+                }
+                
+                Map<Integer, BigDecimal> prices = findPrices(conn, new ArrayList<>(quantities.keySet()));
+                List<OrderItem> lines = new ArrayList<>(quantities.size());
+                BigDecimal total = BigDecimal.ZERO;
+                for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                    BigDecimal price = prices.get(entry.getKey());
+                    if (price == null) {
+                        throw new DatabaseException("Product " + entry.getKey() + " no longer exists");
+                    }
+                    OrderItem line = new OrderItem(null, entry.getKey(), entry.getValue(), price);
+                    total = total.add(line.getSubTotal());
+                    lines.add(line);
+                }
+                
+                LocalDateTime placedAt = LocalDateTime.now();
+                int orderId = placeOrder(conn, cart, total, placedAt);
+                insertLines(conn, orderId, lines, cart.getOrderId() != null);
+                SalesRollups.apply(conn, orderId, null, new SalesRollups.OrderState(
+                        cart.getCustomerId(), placedAt, OrderStatus.Placed, total), lines);
+                if (!hot.isEmpty()) {
+                    // Durable before the commit, so a crash after it cannot lose the decrement
+                    inventory.journal(orderId, hot);
+                    journaledOrderId = orderId;
+                }
+                conn.commit();
+                committed = true;
+                
+                cart.setOrderId(orderId);
+                cart.setStatus(OrderStatus.Placed);
+                cart.setOrderDate(placedAt);
+                cart.setTotalAmount(total);
+                cart.setOrderItems(lines);
+                return cart;
+            } catch (SQLException | DatabaseException | InsufficientStockException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error checking out order for customer {}", cart.getCustomerId(), e);
+            throw new DatabaseException("Error checking out order: " + e.getMessage(), e);
+        } finally {
+            if (journaledOrderId != null) {
+                inventory.settle(journaledOrderId, hot, committed);
+            } else if (!hot.isEmpty() && !committed) {
+                inventory.cancel(hot);
+            }
+        }
+    }
+    
+    // Returns the products whose decrement matched no row: not enough stock, or the product is gone
+    private List<Integer> decrementStock(Connection conn, SortedMap<Integer, Integer> quantities) throws SQLException {
+        String sql = "UPDATE product SET stock = stock - ? WHERE product_id = ? AND stock >= ?";
+        List<Integer> productIds = new ArrayList<>(quantities.keySet());
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+            
+            int[] counts = pstmt.executeBatch();
+            List<Integer> shortages = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    shortages.add(productIds.get(i));
+                }
+            }
+            return shortages;
+        }
+    }
+    
+    // Read after the decrements, so the cold rows are already locked and their prices cannot move under us
+    private Map<Integer, BigDecimal> findPrices(Connection conn, List<Integer> productIds) throws SQLException {
+        int slots = Integer.highestOneBit(productIds.size());
+        if (slots < productIds.size()) {
+            slots <<= 1;
+        }
+        StringBuilder sql = new StringBuilder("SELECT product_id, price FROM product WHERE product_id IN (");
+        for (int i = 0; i < slots; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        Map<Integer, BigDecimal> prices = new HashMap<>();
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < slots; i++) {
+                pstmt.setInt(i + 1, productIds.get(Math.min(i, productIds.size() - 1)));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    prices.put(rs.getInt("product_id"), rs.getBigDecimal("price"));
+                }
+            }
+        }
+        return prices;
+    }
+    
+    private int placeOrder(Connection conn, Order cart, BigDecimal total, LocalDateTime placedAt)
+            throws SQLException, DatabaseException {
+        if (cart.getOrderId() == null) {
+            String sql = "INSERT INTO orders (customer_id, order_date, status, total_amount) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, cart.getCustomerId());
+                pstmt.setTimestamp(2, Timestamp.valueOf(placedAt));
+                pstmt.setString(3, OrderStatus.Placed.getValue());
+                pstmt.setBigDecimal(4, total);
+                pstmt.executeUpdate();
+                
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getInt(1);
+                    }
+                    throw new DatabaseException("Creating order failed, no ID obtained.");
+                }
+            }
+        }
+        
+        // Only an open cart can be placed; a double-submitted checkout finds it already Placed
+        String sql = "UPDATE orders SET status = ?, order_date = ?, total_amount = ? WHERE order_id = ? AND status = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, OrderStatus.Placed.getValue());
+            pstmt.setTimestamp(2, Timestamp.valueOf(placedAt));
+            pstmt.setBigDecimal(3, total);
+            pstmt.setInt(4, cart.getOrderId());
+            pstmt.setString(5, OrderStatus.Cart.getValue());
+            if (pstmt.executeUpdate() == 0) {
+                throw new DatabaseException("Order " + cart.getOrderId() + " is not an open cart");
+            }
+            return cart.getOrderId();
+        }
+    }
+    
+    private void insertLines(Connection conn, int orderId, List<OrderItem> lines, boolean replaceDraftLines)
+            throws SQLException {
+        if (replaceDraftLines) {
+            // Lines saved while shopping are replaced by the priced snapshot taken at checkout
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM order_item WHERE order_id = ?")) {
+                pstmt.setInt(1, orderId);
+                pstmt.executeUpdate();
+            }
+        }
+        
+        String sql = "INSERT INTO order_item (order_id, product_id, quantity, price_at_order) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (OrderItem line : lines) {
+                line.setOrderId(orderId);
+                pstmt.setInt(1, orderId);
+                pstmt.setInt(2, line.getProductId());
+                pstmt.setInt(3, line.getQuantity());
+                pstmt.setBigDecimal(4, line.getPriceAtOrder());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+    
+    @Override
+    public Optional<Order> findById(Integer id) throws DatabaseException {
+        String sql = "SELECT * FROM orders WHERE order_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, id);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToOrder(rs));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            logger.error("Error finding order by ID", e);
+            throw new DatabaseException("Error finding order by ID: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<Order> findByCustomerId(Integer customerId) throws DatabaseException {
+        String sql = "SELECT * FROM orders WHERE customer_id = ? ORDER BY order_date DESC, order_id DESC";
+        List<Order> orders = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, customerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapRowToOrder(rs));
+                }
+            }
+            
+            return orders;
+        } catch (SQLException e) {
+            logger.error("Error finding orders by customer ID", e);
+            throw new DatabaseException("Error finding orders by customer ID: " + e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Two queries per page whatever the page holds: a keyset page of orders on
+     * idx_orders_customer_date, then every item of those orders joined to its product.
+     * The object graph is assembled in memory.
+     */
+    @Override
+    public OrderHistoryPage findHistory(Integer customerId, String cursor, int pageSize) throws DatabaseException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        OrderCursor after = cursor != null && !cursor.isEmpty() ? OrderCursor.decode(cursor) : null;
+        String sql = after == null
+                ? "SELECT * FROM orders WHERE customer_id = ? AND status <> ? "
+                  + "ORDER BY order_date DESC, order_id DESC FETCH FIRST ? ROWS ONLY"
+                : "SELECT * FROM orders WHERE customer_id = ? AND status <> ? "
+                  + "AND order_date <= ? AND (order_date < ? OR order_id < ?) "
+                  + "ORDER BY order_date DESC, order_id DESC FETCH FIRST ? ROWS ONLY";
+        List<Order> orders = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                pstmt.setInt(index++, customerId);
+                pstmt.setString(index++, OrderStatus.Cart.getValue());
+                if (after != null) {
+                    Timestamp orderDate = Timestamp.valueOf(after.getOrderDate());
+                    pstmt.setTimestamp(index++, orderDate);
+                    pstmt.setTimestamp(index++, orderDate);
+                    pstmt.setInt(index++, after.getOrderId());
+                }
+                // One extra row tells us whether another page exists
+                pstmt.setInt(index, pageSize + 1);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        orders.add(mapRowToOrder(rs));
+                    }
+                }
+            }
+            
+            String nextCursor = null;
+            if (orders.size() > pageSize) {
+                orders.remove(pageSize);
+                Order last = orders.get(pageSize - 1);
+                nextCursor = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+            }
+            
+            attachItems(conn, orders);
+            return new OrderHistoryPage(orders, nextCursor);
+        } catch (SQLException e) {
+            logger.error("Error finding order history for customer {}", customerId, e);
+            throw new DatabaseException("Error finding order history: " + e.getMessage(), e);
+        }
+    }
+    
+    private void attachItems(Connection conn, List<Order> orders) throws SQLException {
+        Map<Integer, Order> byId = new HashMap<>();
+        for (Order order : orders) {
+            order.setOrderItems(new ArrayList<>());
+            byId.put(order.getOrderId(), order);
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+        
+        // IN-list sizes are rounded up to a power of two so the statement cache sees a handful of shapes
+        int slots = Integer.highestOneBit(orders.size());
+        if (slots < orders.size()) {
+            slots <<= 1;
+        }
+        StringBuilder sql = new StringBuilder("SELECT oi.order_item_id, oi.order_id, oi.product_id, oi.quantity, "
+                + "oi.price_at_order, p.name, p.company, p.price FROM order_item oi "
+                + "JOIN product p ON p.product_id = oi.product_id WHERE oi.order_id IN (");
+        for (int i = 0; i < slots; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY oi.order_id, oi.order_item_id");
+        // Products recurring across orders share one summary object
+        Map<Integer, Product> products = new HashMap<>();
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < slots; i++) {
+                pstmt.setInt(i + 1, orders.get(Math.min(i, orders.size() - 1)).getOrderId());
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    OrderItem item = new OrderItem(rs.getInt("order_id"), rs.getInt("product_id"),
+                            rs.getInt("quantity"), rs.getBigDecimal("price_at_order"));
+                    item.setOrderItemId(rs.getInt("order_item_id"));
+                    Product product = products.get(item.getProductId());
+                    if (product == null) {
+                        product = mapRowToProductSummary(rs, item.getProductId());
+                        products.put(item.getProductId(), product);
+                    }
+                    item.setProduct(product);
+                    byId.get(item.getOrderId()).getOrderItems().add(item);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public List<Order> findAll() throws DatabaseException {
+        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
+        List<Order> orders = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                orders.add(mapRowToOrder(rs));
+            }
+            
+            return orders;
+        } catch (SQLException e) {
+            logger.error("Error finding all orders", e);
+            throw new DatabaseException("Error finding all orders: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Order update(Order order) throws DatabaseException {
+        String sql = "UPDATE orders SET status = ?, total_amount = ? WHERE order_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            conn.setAutoCommit(false);
+            try {
+                SalesRollups.OrderState before = lockOrder(conn, order.getOrderId())
+                        .orElseThrow(() -> new DatabaseException("Updating order failed, no rows affected."));
+                
+                pstmt.setString(1, order.getStatus().getValue());
+                pstmt.setBigDecimal(2, order.getTotalAmount());
+                pstmt.setInt(3, order.getOrderId());
+                pstmt.executeUpdate();
+                
+                SalesRollups.apply(conn, order.getOrderId(), before, new SalesRollups.OrderState(
+                        before.customerId(), before.orderDate(), order.getStatus(), order.getTotalAmount()), null);
+                conn.commit();
+            } catch (SQLException | DatabaseException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            return order;
+        } catch (SQLException e) {
+            logger.error("Error updating order", e);
+            throw new DatabaseException("Error updating order: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public boolean delete(Integer id) throws DatabaseException {
+        try (Connection conn = connectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteItems = conn.prepareStatement("DELETE FROM order_item WHERE order_id = ?");
+                 PreparedStatement deleteOrder = conn.prepareStatement("DELETE FROM orders WHERE order_id = ?")) {
+                
+                Optional<SalesRollups.OrderState> before = lockOrder(conn, id);
+                if (before.isEmpty()) {
+                    conn.commit();
+                    return false;
+                }
+                // Rolled back out of the sales rollups while its lines are still there to read
+                SalesRollups.apply(conn, id, before.get(), null, null);
+                
+                deleteItems.setInt(1, id);
+                deleteItems.executeUpdate();
+                deleteOrder.setInt(1, id);
+                int rowsAffected = deleteOrder.executeUpdate();
+                conn.commit();
+                return rowsAffected > 0;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error deleting order", e);
+            throw new DatabaseException("Error deleting order: " + e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Write-locks the order row until the transaction ends and returns the state the sales rollups
+     * last saw, so a concurrent status change cannot slip in between reading it and replacing it.
+     */
+    private Optional<SalesRollups.OrderState> lockOrder(Connection conn, int orderId) throws SQLException {
+        try (PreparedStatement lock = conn.prepareStatement("UPDATE orders SET status = status WHERE order_id = ?")) {
+            lock.setInt(1, orderId);
+            if (lock.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT customer_id, order_date, status, total_amount FROM orders WHERE order_id = ?")) {
+            pstmt.setInt(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                Timestamp orderDate = rs.getTimestamp("order_date");
+                return Optional.of(new SalesRollups.OrderState(rs.getInt("customer_id"),
+                        orderDate != null ? orderDate.toLocalDateTime() : LocalDateTime.now(),
+                        OrderStatus.fromString(rs.getString("status")), rs.getBigDecimal("total_amount")));
+            }
+        }
+    }
+    
+    @Override
+    public Optional<Order> findCartByCustomerId(Integer customerId) throws DatabaseException {
+        String sql = "SELECT * FROM orders WHERE customer_id = ? AND status = ? ORDER BY order_id DESC "
+                + "FETCH FIRST ROW ONLY";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, customerId);
+            pstmt.setString(2, OrderStatus.Cart.getValue());
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToOrder(rs));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            logger.error("Error finding cart by customer ID", e);
+            throw new DatabaseException("Error finding cart by customer ID: " + e.getMessage(), e);
+        }
+    }
+    
+    // Enough of the product for an order history line; description and stock are not loaded
+    private Product mapRowToProductSummary(ResultSet rs, Integer productId) throws SQLException {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setName(rs.getString("name"));
+        product.setCompany(rs.getString("company"));
+        product.setPrice(rs.getBigDecimal("price"));
+        return product;
+    }
+    
+    private Order mapRowToOrder(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setOrderId(rs.getInt("order_id"));
+        order.setCustomerId(rs.getInt("customer_id"));
+        order.setStatus(OrderStatus.fromString(rs.getString("status")));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        
+        Timestamp timestamp = rs.getTimestamp("order_date");
+        if (timestamp != null) {
+            order.setOrderDate(timestamp.toLocalDateTime());
+        }
+        
+        return order;
+    }
+}
@@ -0,0 +1,189 @@
+package com.store.dao.impl;
+
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.OrderItemDAO;
+import com.store.model.OrderItem;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class OrderItemDAOImpl implements OrderItemDAO {
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemDAOImpl.class);
+    private final DerbyConnectionManager connectionManager;
+    
+    public OrderItemDAOImpl() {
+        this.connectionManager = DerbyConnectionManager.getInstance();
+    }
+    
+    @Override
+    public OrderItem save(OrderItem orderItem) throws DatabaseException {
+        String sql = "INSERT INTO order_item (order_id, product_id, quantity, price_at_order) VALUES (?, ?, ?, ?)";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setInt(1, orderItem.getOrderId());
+            pstmt.setInt(2, orderItem.getProductId());
+            pstmt.setInt(3, orderItem.getQuantity());
+            pstmt.setBigDecimal(4, orderItem.getPriceAtOrder());
+            
+            int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected == 0) {
+                throw new DatabaseException("Creating order item failed, no rows affected.");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    orderItem.setOrderItemId(generatedKeys.getInt(1));
+                } else {
+                    throw new DatabaseException("Creating order item failed, no ID obtained.");
+                }
+            }
+            
+            return orderItem;
+        } catch (SQLException e) {
+            logger.error("Error saving order item", e);
+            throw new DatabaseException("Error saving order item: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Optional<OrderItem> findById(Integer id) throws DatabaseException {
+        String sql = "SELECT * FROM order_item WHERE order_item_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, id);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToOrderItem(rs));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            logger.error("Error finding order item by ID", e);
+            throw new DatabaseException("Error finding order item by ID: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<OrderItem> findByOrderId(Integer orderId) throws DatabaseException {
+        String sql = "SELECT * FROM order_item WHERE order_id = ? ORDER BY order_item_id";
+        List<OrderItem> items = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, orderId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapRowToOrderItem(rs));
+                }
+            }
+            
+            return items;
+        } catch (SQLException e) {
+            logger.error("Error finding order items by order ID", e);
+            throw new DatabaseException("Error finding order items by order ID: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public OrderItem update(OrderItem orderItem) throws DatabaseException {
+        String sql = "UPDATE order_item SET quantity = ?, price_at_order = ? WHERE order_item_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, orderItem.getQuantity());
+            pstmt.setBigDecimal(2, orderItem.getPriceAtOrder());
+            pstmt.setInt(3, orderItem.getOrderItemId());
+            
+            int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected == 0) {
+                throw new DatabaseException("Updating order item failed, no rows affected.");
+            }
+            
+            return orderItem;
+        } catch (SQLException e) {
+            logger.error("Error updating order item", e);
+            throw new DatabaseException("Error updating order item: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public boolean delete(Integer id) throws DatabaseException {
+        String sql = "DELETE FROM order_item WHERE order_item_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, id);
+            int rowsAffected = pstmt.executeUpdate();
+            return rowsAffected > 0;
+            
+        } catch (SQLException e) {
+            logger.error("Error deleting order item", e);
+            throw new DatabaseException("Error deleting order item: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public boolean deleteByOrderId(Integer orderId) throws DatabaseException {
+        String sql = "DELETE FROM order_item WHERE order_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, orderId);
+            int rowsAffected = pstmt.executeUpdate();
+            return rowsAffected > 0;
+            
+        } catch (SQLException e) {
+            logger.error("Error deleting order items by order ID", e);
+            throw new DatabaseException("Error deleting order items by order ID: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Optional<OrderItem> findByOrderIdAndProductId(Integer orderId, Integer productId) throws DatabaseException {
+        String sql = "SELECT * FROM order_item WHERE order_id = ? AND product_id = ?";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, orderId);
+            pstmt.setInt(2, productId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToOrderItem(rs));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            logger.error("Error finding order item by order and product", e);
+            throw new DatabaseException("Error finding order item by order and product: " + e.getMessage(), e);
+        }
+    }
+    
+    private OrderItem mapRowToOrderItem(ResultSet rs) throws SQLException {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrderItemId(rs.getInt("order_item_id"));
+        orderItem.setOrderId(rs.getInt("order_id"));
+        orderItem.setProductId(rs.getInt("product_id"));
+        orderItem.setQuantity(rs.getInt("quantity"));
+        orderItem.setPriceAtOrder(rs.getBigDecimal("price_at_order"));
+        return orderItem;
+    }
+}
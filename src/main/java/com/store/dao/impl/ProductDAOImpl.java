@@ -1,23 +1,56 @@
 package com.store.dao.impl;
 
 import com.store.config.DerbyConnectionManager;
+import com.store.config.AppConfig;
+import com.store.dao.ProductChangeEvents;
 import com.store.dao.ProductDAO;
+import com.store.dao.RowCallback;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.ProductCursor;
+import com.store.dto.ProductPage;
+import com.store.dto.ProductSearchResult;
+import com.store.inventory.InventoryReservationEngine;
+import com.store.inventory.StockWriteCoalescer;
 import com.store.model.Product;
+import com.store.search.ProductSearchIndex;
 import com.store.util.DatabaseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class ProductDAOImpl implements ProductDAO {
     private static final Logger logger = LoggerFactory.getLogger(ProductDAOImpl.class);
+    private static final long TOTAL_COUNT_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final Object totalCountLock = new Object();
+    // Shared across instances since DAOFactory hands out a new DAO per call; -1 means unknown
+    private static int cachedTotalCount = -1;
+    private static long totalCountLoadedAt;
+    private static final int SEARCH_MAX_RESULTS = AppConfig.getInt("search.max.results", 500);
+    private static final int BULK_BATCH_SIZE = AppConfig.getInt("bulk.batch.size", 500);
+    private static final int BULK_COMMIT_INTERVAL = AppConfig.getInt("bulk.commit.interval", 5000);
+    private static final int NATURAL_KEY_LOOKUP_SIZE = 256;
     private final DerbyConnectionManager connectionManager;
+    private final InventoryReservationEngine inventory;
+    private final StockWriteCoalescer stockWriter;
     
     public ProductDAOImpl() {
         this.connectionManager = DerbyConnectionManager.getInstance();
+        this.inventory = InventoryReservationEngine.getInstance();
+        this.stockWriter = StockWriteCoalescer.getInstance();
     }
     
     @Override
@@ -46,6 +79,8 @@ public class ProductDAOImpl implements ProductDAO {
                 }
             }
             
+            adjustTotalCount(1);
+            ProductChangeEvents.fireSaved(product);
             return product;
         } catch (SQLException e) {
             logger.error("Error saving product", e);
@@ -53,6 +88,308 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
     
+    @Override
+    public BulkLoadResult saveAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException {
+        String sql = "INSERT INTO product (name, description, company, price, stock) VALUES (?, ?, ?, ?, ?)";
+        List<ImportRow<Product>> batch = new ArrayList<>(BULK_BATCH_SIZE);
+        long committed = 0;
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            conn.setAutoCommit(false);
+            try {
+                long uncommitted = 0;
+                for (ImportRow<Product> row : rows) {
+                    batch.add(row);
+                    if (batch.size() >= BULK_BATCH_SIZE) {
+                        uncommitted += executeBatch(pstmt, batch, this::bindInsert, result).size();
+                        batch.clear();
+                        if (uncommitted >= BULK_COMMIT_INTERVAL) {
+                            conn.commit();
+                            committed += uncommitted;
+                            result.addInserted(uncommitted);
+                            uncommitted = 0;
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    uncommitted += executeBatch(pstmt, batch, this::bindInsert, result).size();
+                }
+                conn.commit();
+                committed += uncommitted;
+                result.addInserted(uncommitted);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            result.finish();
+            logger.info("Bulk product load: {}", result);
+            return result;
+        } catch (SQLException e) {
+            logger.error("Error bulk loading products after {} committed rows", committed, e);
+            throw new DatabaseException("Error bulk loading products after " + committed + " committed rows: "
+                    + e.getMessage(), e);
+        } finally {
+            if (committed > 0) {
+                adjustTotalCount((int) committed);
+                ProductChangeEvents.fireReloaded();
+            }
+        }
+    }
+    
+    @Override
+    public BulkLoadResult mergeAll(Iterable<ImportRow<Product>> rows, BulkLoadResult result) throws DatabaseException {
+        String insertSql = "INSERT INTO product (name, description, company, price, stock) VALUES (?, ?, ?, ?, ?)";
+        // A NULL stock keeps the column as is: hot products' stock belongs to the inventory engine
+        String updateSql = "UPDATE product SET description = ?, price = ?, stock = COALESCE(?, stock) WHERE product_id = ?";
+        List<ImportRow<Product>> batch = new ArrayList<>(BULK_BATCH_SIZE);
+        long committedInserts = 0;
+        long committedUpdates = 0;
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement insert = conn.prepareStatement(insertSql);
+             PreparedStatement update = conn.prepareStatement(updateSql)) {
+            
+            conn.setAutoCommit(false);
+            try {
+                List<ImportRow<Product>> inserted = new ArrayList<>();
+                List<ImportRow<Product>> updated = new ArrayList<>();
+                for (ImportRow<Product> row : rows) {
+                    batch.add(row);
+                    if (batch.size() >= BULK_BATCH_SIZE) {
+                        mergeBatch(conn, insert, update, batch, result, inserted, updated);
+                        batch.clear();
+                        if (inserted.size() + updated.size() >= BULK_COMMIT_INTERVAL) {
+                            conn.commit();
+                            committedInserts += inserted.size();
+                            committedUpdates += updated.size();
+                            publishMerged(inserted, updated, result);
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    mergeBatch(conn, insert, update, batch, result, inserted, updated);
+                }
+                conn.commit();
+                committedInserts += inserted.size();
+                committedUpdates += updated.size();
+                publishMerged(inserted, updated, result);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            result.finish();
+            logger.info("Product merge load: {}", result);
+            return result;
+        } catch (SQLException e) {
+            logger.error("Error merging products after {} inserts and {} updates were committed",
+                    committedInserts, committedUpdates, e);
+            throw new DatabaseException("Error merging products after " + committedInserts + " inserts and "
+                    + committedUpdates + " updates were committed: " + e.getMessage(), e);
+        } finally {
+            if (committedInserts > 0) {
+                adjustTotalCount((int) committedInserts);
+                ProductChangeEvents.fireReloaded();
+            }
+        }
+    }
+    
+    // Matches one batch against existing rows by name and company; only rows that differ are written
+    private void mergeBatch(Connection conn, PreparedStatement insert, PreparedStatement update,
+                            List<ImportRow<Product>> batch, BulkLoadResult result,
+                            List<ImportRow<Product>> inserted, List<ImportRow<Product>> updated) throws SQLException {
+        Map<String, ImportRow<Product>> incoming = new LinkedHashMap<>();
+        for (ImportRow<Product> row : batch) {
+            ImportRow<Product> superseded = incoming.put(naturalKey(row.value()), row);
+            if (superseded != null) {
+                result.addReject(superseded.lineNumber(), "Superseded by line " + row.lineNumber()
+                        + " with the same name and company");
+            }
+        }
+        
+        Map<String, List<Product>> existing = findByNaturalKeys(conn, incoming.values());
+        List<ImportRow<Product>> toInsert = new ArrayList<>();
+        List<ImportRow<Product>> toUpdate = new ArrayList<>();
+        long unchanged = 0;
+        for (Map.Entry<String, ImportRow<Product>> entry : incoming.entrySet()) {
+            ImportRow<Product> row = entry.getValue();
+            List<Product> matches = existing.get(entry.getKey());
+            if (matches == null) {
+                toInsert.add(row);
+                continue;
+            }
+            boolean changed = false;
+            for (Product current : matches) {
+                // A hot product's stock column lags its counter, which is what the file is compared with
+                Integer currentStock = inventory.isHot(current.getProductId())
+                        ? Integer.valueOf(inventory.getAvailable(current.getProductId())) : current.getStock();
+                if (hasChanged(current, currentStock, row.value())) {
+                    Product merged = new Product(current.getName(), row.value().getDescription(),
+                            current.getCompany(), row.value().getPrice(), row.value().getStock());
+                    merged.setProductId(current.getProductId());
+                    merged.setCreatedDate(current.getCreatedDate());
+                    toUpdate.add(new ImportRow<>(row.lineNumber(), merged));
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                unchanged++;
+            }
+        }
+        
+        result.addUnchanged(unchanged);
+        if (!toInsert.isEmpty()) {
+            inserted.addAll(executeBatch(insert, toInsert, this::bindInsert, result));
+        }
+        if (!toUpdate.isEmpty()) {
+            updated.addAll(executeBatch(update, toUpdate, this::bindMergeUpdate, result));
+        }
+    }
+    
+    /*
+     * Counts and change events are only published once the rows behind them are committed. The
+     * UPDATE left hot products' stock column alone, so their new stock goes to the inventory
+     * engine here, as update() does for a single product.
+     */
+    private void publishMerged(List<ImportRow<Product>> inserted, List<ImportRow<Product>> updated,
+                               BulkLoadResult result) throws DatabaseException {
+        result.addInserted(inserted.size());
+        result.addUpdated(updated.size());
+        for (ImportRow<Product> row : updated) {
+            if (inventory.isHot(row.value().getProductId())) {
+                inventory.setStock(row.value().getProductId(), row.value().getStock());
+            }
+            ProductChangeEvents.fireUpdated(row.value());
+        }
+        inserted.clear();
+        updated.clear();
+    }
+    
+    private Map<String, List<Product>> findByNaturalKeys(Connection conn, Collection<ImportRow<Product>> rows)
+            throws SQLException {
+        Set<String> distinctNames = new LinkedHashSet<>();
+        for (ImportRow<Product> row : rows) {
+            distinctNames.add(row.value().getName());
+        }
+        List<String> names = new ArrayList<>(distinctNames);
+        Map<String, List<Product>> existing = new HashMap<>();
+        
+        for (int from = 0; from < names.size(); from += NATURAL_KEY_LOOKUP_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + NATURAL_KEY_LOOKUP_SIZE));
+            // Padded to a power of two, as in findByIds, to keep the number of statement shapes small
+            int slots = Integer.highestOneBit(chunk.size());
+            if (slots < chunk.size()) {
+                slots <<= 1;
+            }
+            StringBuilder sql = new StringBuilder("SELECT * FROM product WHERE name IN (");
+            for (int i = 0; i < slots; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < slots; i++) {
+                    pstmt.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Product product = mapRowToProduct(rs);
+                        existing.computeIfAbsent(naturalKey(product), k -> new ArrayList<>()).add(product);
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+    
+    private static String naturalKey(Product product) {
+        String company = product.getCompany() != null ? product.getCompany() : "";
+        return product.getName() + '\0' + company;
+    }
+    
+    private static boolean hasChanged(Product current, Integer currentStock, Product incoming) {
+        String currentDescription = current.getDescription() != null ? current.getDescription() : "";
+        String incomingDescription = incoming.getDescription() != null ? incoming.getDescription() : "";
+        return !currentDescription.equals(incomingDescription)
+                || current.getPrice().compareTo(incoming.getPrice()) != 0
+                || !Objects.equals(currentStock, incoming.getStock());
+    }
+    
+    private interface RowBinder {
+        void bind(PreparedStatement pstmt, Product product) throws SQLException;
+    }
+    
+    private void bindInsert(PreparedStatement pstmt, Product product) throws SQLException {
+        pstmt.setString(1, product.getName());
+        pstmt.setString(2, product.getDescription());
+        pstmt.setString(3, product.getCompany());
+        pstmt.setBigDecimal(4, product.getPrice());
+        pstmt.setInt(5, product.getStock());
+    }
+    
+    private void bindMergeUpdate(PreparedStatement pstmt, Product product) throws SQLException {
+        pstmt.setString(1, product.getDescription());
+        pstmt.setBigDecimal(2, product.getPrice());
+        if (inventory.isHot(product.getProductId())) {
+            pstmt.setNull(3, Types.INTEGER);
+        } else {
+            pstmt.setInt(3, product.getStock());
+        }
+        pstmt.setInt(4, product.getProductId());
+    }
+    
+    // Executes one batch, peeling off rows Derby rejects and resubmitting the remainder; returns the applied rows
+    private List<ImportRow<Product>> executeBatch(PreparedStatement pstmt, List<ImportRow<Product>> batch,
+                                                  RowBinder binder, BulkLoadResult result) throws SQLException {
+        List<ImportRow<Product>> applied = new ArrayList<>(batch.size());
+        int start = 0;
+        while (start < batch.size()) {
+            for (int i = start; i < batch.size(); i++) {
+                binder.bind(pstmt, batch.get(i).value());
+                pstmt.addBatch();
+            }
+            
+            try {
+                pstmt.executeBatch();
+                applied.addAll(batch.subList(start, batch.size()));
+                start = batch.size();
+            } catch (BatchUpdateException e) {
+                pstmt.clearBatch();
+                // Transaction-severity errors (deadlock, lock timeout) have already rolled back earlier batches
+                if (e.getSQLState() != null && e.getSQLState().startsWith("40")) {
+                    throw e;
+                }
+                
+                int[] counts = e.getUpdateCounts();
+                String reason = e.getNextException() != null ? e.getNextException().getMessage() : e.getMessage();
+                if (counts.length == batch.size() - start) {
+                    // Driver kept going past the failure: every row has a status
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == Statement.EXECUTE_FAILED) {
+                            result.addReject(batch.get(start + i).lineNumber(), reason);
+                        } else {
+                            applied.add(batch.get(start + i));
+                        }
+                    }
+                    start = batch.size();
+                } else {
+                    int failed = start + counts.length;
+                    applied.addAll(batch.subList(start, failed));
+                    result.addReject(batch.get(failed).lineNumber(), reason);
+                    start = failed + 1;
+                }
+            }
+        }
+        return applied;
+    }
+    
     @Override
     public Optional<Product> findById(Integer id) throws DatabaseException {
         String sql = "SELECT * FROM product WHERE product_id = ?";
@@ -95,9 +432,39 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
     
+    @Override
+    public void forEach(RowCallback<Product> callback) throws DatabaseException {
+        forEach(connectionManager.getStreamFetchSize(), callback);
+    }
+    
+    @Override
+    public void forEach(int fetchSize, RowCallback<Product> callback) throws DatabaseException {
+        // Primary key order walks the PK index, so Derby never has to sort the whole table first
+        String sql = "SELECT * FROM product ORDER BY product_id";
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setFetchSize(fetchSize);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.process(mapRowToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error streaming all products", e);
+            throw new DatabaseException("Error streaming all products: " + e.getMessage(), e);
+        } catch (DatabaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DatabaseException("Error processing streamed product: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public List<Product> findAll(int page, int pageSize) throws DatabaseException {
-        String sql = "SELECT * FROM product ORDER BY created_date DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        String sql = "SELECT * FROM product ORDER BY created_date DESC, product_id DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
         List<Product> products = new ArrayList<>();
         
         try (Connection conn = connectionManager.getConnection();
@@ -119,9 +486,56 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
     
+    @Override
+    public ProductPage findPage(String cursor, int pageSize) throws DatabaseException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        ProductCursor after = cursor != null && !cursor.isEmpty() ? ProductCursor.decode(cursor) : null;
+        // created_date <= ? is the seek predicate on idx_product_created_date; the OR only breaks ties
+        String sql = after == null
+                ? "SELECT * FROM product ORDER BY created_date DESC, product_id DESC FETCH FIRST ? ROWS ONLY"
+                : "SELECT * FROM product WHERE created_date <= ? AND (created_date < ? OR product_id < ?) "
+                  + "ORDER BY created_date DESC, product_id DESC FETCH FIRST ? ROWS ONLY";
+        List<Product> products = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                Timestamp createdDate = Timestamp.valueOf(after.getCreatedDate());
+                pstmt.setTimestamp(index++, createdDate);
+                pstmt.setTimestamp(index++, createdDate);
+                pstmt.setInt(index++, after.getProductId());
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, pageSize + 1);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding product page", e);
+            throw new DatabaseException("Error finding product page: " + e.getMessage(), e);
+        }
+        
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products.remove(pageSize);
+            Product last = products.get(pageSize - 1);
+            nextCursor = new ProductCursor(last.getCreatedDate(), last.getProductId()).encode();
+        }
+        return new ProductPage(products, nextCursor, getTotalCount());
+    }
+    
     @Override
     public Product update(Product product) throws DatabaseException {
-        String sql = "UPDATE product SET name = ?, description = ?, company = ?, price = ?, stock = ? WHERE product_id = ?";
+        String sql = "UPDATE product SET name = ?, description = ?, company = ?, price = ?, stock = COALESCE(?, stock) "
+                + "WHERE product_id = ?";
+        boolean hot = inventory.isHot(product.getProductId());
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -130,14 +544,22 @@ public class ProductDAOImpl implements ProductDAO {
             pstmt.setString(2, product.getDescription());
             pstmt.setString(3, product.getCompany());
             pstmt.setBigDecimal(4, product.getPrice());
-            pstmt.setInt(5, product.getStock());
+            if (hot) {
+                pstmt.setNull(5, Types.INTEGER);
+            } else {
+                pstmt.setInt(5, product.getStock());
+            }
             pstmt.setInt(6, product.getProductId());
             
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected == 0) {
                 throw new DatabaseException("Updating product failed, no rows affected.");
             }
+            if (hot) {
+                inventory.setStock(product.getProductId(), product.getStock());
+            }
             
+            ProductChangeEvents.fireUpdated(product);
             return product;
         } catch (SQLException e) {
             logger.error("Error updating product", e);
@@ -154,6 +576,10 @@ public class ProductDAOImpl implements ProductDAO {
             
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                adjustTotalCount(-rowsAffected);
+                ProductChangeEvents.fireDeleted(id);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -164,24 +590,46 @@ public class ProductDAOImpl implements ProductDAO {
     
     @Override
     public int getTotalCount() throws DatabaseException {
+        synchronized (totalCountLock) {
+            if (cachedTotalCount >= 0 && System.nanoTime() - totalCountLoadedAt < TOTAL_COUNT_TTL_NANOS) {
+                return cachedTotalCount;
+            }
+        }
+        
         String sql = "SELECT COUNT(*) FROM product";
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
-            if (rs.next()) {
-                return rs.getInt(1);
+            int count = rs.next() ? rs.getInt(1) : 0;
+            synchronized (totalCountLock) {
+                cachedTotalCount = count;
+                totalCountLoadedAt = System.nanoTime();
             }
-            return 0;
+            return count;
         } catch (SQLException e) {
             logger.error("Error getting total product count", e);
             throw new DatabaseException("Error getting total product count: " + e.getMessage(), e);
         }
     }
     
+    // Keeps the cached count exact for writes made through this DAO; the TTL covers anything else
+    static void adjustTotalCount(int delta) {
+        synchronized (totalCountLock) {
+            if (cachedTotalCount >= 0) {
+                cachedTotalCount = Math.max(0, cachedTotalCount + delta);
+            }
+        }
+    }
+    
     @Override
     public List<Product> searchByName(String name) throws DatabaseException {
+        ProductSearchIndex index = ProductSearchIndex.getInstance();
+        if (index.isReady()) {
+            return findByIds(index.search(name, 1, SEARCH_MAX_RESULTS).productIds());
+        }
+        
         String sql = "SELECT * FROM product WHERE UPPER(name) LIKE UPPER(?) ORDER BY name";
         List<Product> products = new ArrayList<>();
         
@@ -203,22 +651,166 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
     
+    @Override
+    public ProductSearchResult search(String query, int page, int pageSize) throws DatabaseException {
+        ProductSearchIndex index = ProductSearchIndex.getInstance();
+        if (index.isReady()) {
+            ProductSearchIndex.Hits hits = index.search(query, page, pageSize);
+            return new ProductSearchResult(findByIds(hits.productIds()), page, pageSize, hits.totalHits());
+        }
+        return searchWithLike(query, page, pageSize);
+    }
+    
+    // Only used until the in-memory index has finished its initial build
+    private ProductSearchResult searchWithLike(String query, int page, int pageSize) throws DatabaseException {
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            return new ProductSearchResult(Collections.emptyList(), page, pageSize, 0);
+        }
+        
+        StringBuilder where = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            where.append(i == 0 ? " WHERE " : " AND ")
+                 .append("(UPPER(name) LIKE ? OR UPPER(company) LIKE ? OR UPPER(description) LIKE ?)");
+        }
+        String countSql = "SELECT COUNT(*) FROM product" + where;
+        String sql = "SELECT * FROM product" + where
+                + " ORDER BY name, product_id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        List<Product> products = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement countStmt = conn.prepareStatement(countSql);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (String term : terms) {
+                String pattern = "%" + term.toUpperCase() + "%";
+                for (int column = 0; column < 3; column++) {
+                    countStmt.setString(index, pattern);
+                    pstmt.setString(index, pattern);
+                    index++;
+                }
+            }
+            pstmt.setInt(index++, (page - 1) * pageSize);
+            pstmt.setInt(index, pageSize);
+            
+            int totalHits;
+            try (ResultSet rs = countStmt.executeQuery()) {
+                totalHits = rs.next() ? rs.getInt(1) : 0;
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+            
+            return new ProductSearchResult(products, page, pageSize, totalHits);
+        } catch (SQLException e) {
+            logger.error("Error searching products", e);
+            throw new DatabaseException("Error searching products: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<Product> findByIds(List<Integer> ids) throws DatabaseException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // IN-list sizes are rounded up to a power of two so the statement cache sees a handful of shapes
+        int slots = Integer.highestOneBit(ids.size());
+        if (slots < ids.size()) {
+            slots <<= 1;
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM product WHERE product_id IN (");
+        for (int i = 0; i < slots; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        Map<Integer, Product> found = new HashMap<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < slots; i++) {
+                pstmt.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Product product = mapRowToProduct(rs);
+                    found.put(product.getProductId(), product);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding products by IDs", e);
+            throw new DatabaseException("Error finding products by IDs: " + e.getMessage(), e);
+        }
+        
+        // Preserve the caller's order (search rank), skipping rows deleted in the meantime
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    @Override
+    public Map<Integer, Integer> findOrderCounts() throws DatabaseException {
+        // Carts are not orders yet; only count lines of orders that were actually placed
+        String sql = "SELECT oi.product_id, COUNT(*) FROM order_item oi JOIN orders o ON o.order_id = oi.order_id "
+                + "WHERE o.status <> 'Cart' GROUP BY oi.product_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getInt(2));
+            }
+            
+            return counts;
+        } catch (SQLException e) {
+            logger.error("Error counting product orders", e);
+            throw new DatabaseException("Error counting product orders: " + e.getMessage(), e);
+        }
+    }
+    
     @Override
     public boolean updateStock(Integer productId, Integer newStock) throws DatabaseException {
-        String sql = "UPDATE product SET stock = ? WHERE product_id = ?";
+        if (inventory.isHot(productId)) {
+            inventory.setStock(productId, newStock);
+            return true;
+        }
+        return stockWriter.setStock(productId, newStock);
+    }
+    
+    @Override
+    public Optional<Integer> findStockById(Integer productId) throws DatabaseException {
+        if (inventory.isHot(productId)) {
+            return Optional.of(inventory.getAvailable(productId));
+        }
+        String sql = "SELECT stock FROM product WHERE product_id = ?";
         
         try (Connection conn = connectionManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, newStock);
-            pstmt.setInt(2, productId);
+            pstmt.setInt(1, productId);
             
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getInt(1));
+                }
+            }
             
+            return Optional.empty();
         } catch (SQLException e) {
-            logger.error("Error updating product stock", e);
-            throw new DatabaseException("Error updating product stock: " + e.getMessage(), e);
+            logger.error("Error finding product stock", e);
+            throw new DatabaseException("Error finding product stock: " + e.getMessage(), e);
         }
     }
     
@@ -229,7 +821,9 @@ public class ProductDAOImpl implements ProductDAO {
         product.setDescription(rs.getString("description"));
         product.setCompany(rs.getString("company"));
         product.setPrice(rs.getBigDecimal("price"));
-        product.setStock(rs.getInt("stock"));
+        // The column lags the inventory engine by up to one flush for hot products
+        product.setStock(inventory.isHot(product.getProductId())
+                ? inventory.getAvailable(product.getProductId()) : rs.getInt("stock"));
         
         Timestamp timestamp = rs.getTimestamp("created_date");
         if (timestamp != null) {
@@ -0,0 +1,154 @@
+package com.store.dao.impl;
+
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.SalesReportDAO;
+import com.store.dto.CustomerSales;
+import com.store.dto.DailySales;
+import com.store.dto.OrderStatus;
+import com.store.dto.OrderStatusSummary;
+import com.store.dto.ProductSales;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SalesReportDAOImpl implements SalesReportDAO {
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportDAOImpl.class);
+    private final DerbyConnectionManager connectionManager;
+    
+    public SalesReportDAOImpl() {
+        this.connectionManager = DerbyConnectionManager.getInstance();
+    }
+    
+    @Override
+    public List<DailySales> findDailySales(LocalDate from, LocalDate to) throws DatabaseException {
+        String sql = "SELECT sales_date, SUM(order_count), SUM(units), SUM(revenue) FROM sales_daily " +
+                     "WHERE sales_date BETWEEN ? AND ? GROUP BY sales_date ORDER BY sales_date";
+        List<DailySales> days = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(new DailySales(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getLong(3),
+                            rs.getBigDecimal(4)));
+                }
+            }
+            
+            return days;
+        } catch (SQLException e) {
+            logger.error("Error finding daily sales", e);
+            throw new DatabaseException("Error finding daily sales: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<ProductSales> findTopProducts(LocalDate from, LocalDate to, int limit) throws DatabaseException {
+        // Aggregated before the join so the product name is looked up once per product, not per day
+        String sql = "SELECT s.product_id, p.name, s.order_count, s.units, s.revenue " +
+                     "FROM (SELECT product_id, SUM(order_count) AS order_count, SUM(units) AS units, " +
+                     "SUM(revenue) AS revenue FROM sales_daily_product WHERE sales_date BETWEEN ? AND ? " +
+                     "GROUP BY product_id) s LEFT JOIN product p ON p.product_id = s.product_id " +
+                     "ORDER BY s.revenue DESC, s.product_id FETCH FIRST ? ROWS ONLY";
+        List<ProductSales> products = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            pstmt.setInt(3, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(new ProductSales(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getLong(4),
+                            rs.getBigDecimal(5)));
+                }
+            }
+            
+            return products;
+        } catch (SQLException e) {
+            logger.error("Error finding top products", e);
+            throw new DatabaseException("Error finding top products: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<CustomerSales> findTopCustomers(int limit) throws DatabaseException {
+        String sql = "SELECT s.customer_id, c.name, c.email, s.order_count, s.lifetime_value, s.last_order_date " +
+                     "FROM customer_sales s LEFT JOIN customer c ON c.id = s.customer_id " +
+                     "ORDER BY s.lifetime_value DESC, s.customer_id FETCH FIRST ? ROWS ONLY";
+        List<CustomerSales> customers = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp lastOrderDate = rs.getTimestamp(6);
+                    customers.add(new CustomerSales(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                            rs.getBigDecimal(5), lastOrderDate != null ? lastOrderDate.toLocalDateTime() : null));
+                }
+            }
+            
+            return customers;
+        } catch (SQLException e) {
+            logger.error("Error finding top customers", e);
+            throw new DatabaseException("Error finding top customers: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public List<OrderStatusSummary> findStatusSummary() throws DatabaseException {
+        String sql = "SELECT status, SUM(order_count), SUM(total_amount) FROM order_status_summary " +
+                     "GROUP BY status HAVING SUM(order_count) > 0";
+        List<OrderStatusSummary> summary = new ArrayList<>();
+        
+        try (Connection conn = connectionManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                summary.add(new OrderStatusSummary(OrderStatus.fromString(rs.getString(1)), rs.getInt(2),
+                        rs.getBigDecimal(3)));
+            }
+            // Lifecycle order rather than alphabetical
+            summary.sort((a, b) -> a.getStatus().compareTo(b.getStatus()));
+            
+            return summary;
+        } catch (SQLException e) {
+            logger.error("Error finding order status summary", e);
+            throw new DatabaseException("Error finding order status summary: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public long rebuildRollups() throws DatabaseException {
+        try (Connection conn = connectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long rows = SalesRollups.rebuild(conn);
+                conn.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error rebuilding sales rollups", e);
+            throw new DatabaseException("Error rebuilding sales rollups: " + e.getMessage(), e);
+        }
+    }
+}
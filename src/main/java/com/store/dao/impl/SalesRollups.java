@@ -0,0 +1,307 @@
+package com.store.dao.impl;
+
+import com.store.config.AppConfig;
+import com.store.dto.OrderStatus;
+import com.store.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * Keeps the V5 rollup tables (sales_daily_product, sales_daily, customer_sales and
+ * order_status_summary) in step with orders. OrderDAOImpl describes each write as the order's state
+ * before and after it; apply() turns the difference into deltas and adds them to the rollup rows on
+ * the caller's connection, so they commit or roll back with the order itself.
+ *
+ * Deltas are applied in one fixed order (product rows by day and product, then day rows, the
+ * customer, and statuses by name), so transactions that touch the same rows lock them in the same
+ * order instead of deadlocking. A missing row is inserted; if another transaction inserted it
+ * first, the update is retried. rebuild() recomputes everything from orders and order_item.
+ *
+ * Product, day and status rows are written to the order's stripe (order_id mod
+ * sales.rollup.stripes), so checkouts of the same hot product on the same day hold different row
+ * locks until they commit. Only the customer row is shared, and only by that customer's orders.
+ */
+final class SalesRollups {
+    private static final int STRIPES = Math.max(1, AppConfig.getInt("sales.rollup.stripes", 8));
+    private static final String DUPLICATE_KEY = "23505";
+    private static final Set<OrderStatus> COUNTED = EnumSet.of(
+            OrderStatus.Placed, OrderStatus.Processing, OrderStatus.Shipped, OrderStatus.Delivered);
+    
+    // Update and insert take their parameters in the same order, so one array serves both
+    private static final String UPDATE_PRODUCT_DAY = "UPDATE sales_daily_product SET units = units + ?, "
+            + "revenue = revenue + ?, order_count = order_count + ? WHERE sales_date = ? AND product_id = ? "
+            + "AND stripe = ?";
+    private static final String INSERT_PRODUCT_DAY = "INSERT INTO sales_daily_product "
+            + "(units, revenue, order_count, sales_date, product_id, stripe) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_DAY = "UPDATE sales_daily SET units = units + ?, revenue = revenue + ?, "
+            + "order_count = order_count + ? WHERE sales_date = ? AND stripe = ?";
+    private static final String INSERT_DAY = "INSERT INTO sales_daily "
+            + "(units, revenue, order_count, sales_date, stripe) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_CUSTOMER = "UPDATE customer_sales SET order_count = order_count + ?, "
+            + "lifetime_value = lifetime_value + ?, last_order_date = CASE WHEN last_order_date IS NULL "
+            + "OR last_order_date < ? THEN ? ELSE last_order_date END WHERE customer_id = ?";
+    private static final String INSERT_CUSTOMER = "INSERT INTO customer_sales "
+            + "(order_count, lifetime_value, last_order_date, customer_id) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_STATUS = "UPDATE order_status_summary SET order_count = order_count + ?, "
+            + "total_amount = total_amount + ? WHERE status = ? AND stripe = ?";
+    private static final String INSERT_STATUS = "INSERT INTO order_status_summary "
+            + "(order_count, total_amount, status, stripe) VALUES (?, ?, ?, ?)";
+    
+    private static final String[] ROLLUP_TABLES = {
+            "sales_daily_product", "sales_daily", "customer_sales", "order_status_summary"};
+    // Same as the V5 backfill; everything lands in stripe 0
+    private static final String[] REBUILD = {
+            "INSERT INTO sales_daily_product (sales_date, product_id, stripe, units, revenue, order_count) "
+                    + "SELECT CAST(o.order_date AS DATE), i.product_id, 0, SUM(i.quantity), "
+                    + "SUM(i.quantity * i.price_at_order), COUNT(*) "
+                    + "FROM orders o JOIN order_item i ON i.order_id = o.order_id "
+                    + "WHERE o.status IN ('Placed', 'Processing', 'Shipped', 'Delivered') "
+                    + "GROUP BY CAST(o.order_date AS DATE), i.product_id",
+            "INSERT INTO sales_daily (sales_date, stripe, order_count, units, revenue) "
+                    + "SELECT CAST(o.order_date AS DATE), 0, COUNT(*), SUM(COALESCE(l.units, 0)), "
+                    + "SUM(COALESCE(l.revenue, 0)) "
+                    + "FROM orders o LEFT JOIN (SELECT order_id, SUM(quantity) AS units, "
+                    + "SUM(quantity * price_at_order) AS revenue FROM order_item GROUP BY order_id) l "
+                    + "ON l.order_id = o.order_id "
+                    + "WHERE o.status IN ('Placed', 'Processing', 'Shipped', 'Delivered') "
+                    + "GROUP BY CAST(o.order_date AS DATE)",
+            "INSERT INTO customer_sales (customer_id, order_count, lifetime_value, last_order_date) "
+                    + "SELECT customer_id, SUM(CASE WHEN status = 'Cancelled' THEN 0 ELSE 1 END), "
+                    + "SUM(CASE WHEN status = 'Cancelled' THEN 0 ELSE COALESCE(total_amount, 0) END), "
+                    + "MAX(order_date) FROM orders WHERE status <> 'Cart' GROUP BY customer_id",
+            "INSERT INTO order_status_summary (status, stripe, order_count, total_amount) "
+                    + "SELECT status, 0, COUNT(*), SUM(COALESCE(total_amount, 0)) "
+                    + "FROM orders WHERE status <> 'Cart' GROUP BY status"};
+    
+    // What the rollups need to know about an order at one point in time
+    record OrderState(int customerId, LocalDateTime orderDate, OrderStatus status, BigDecimal totalAmount) {}
+    
+    private record Delta(long count, long units, BigDecimal amount) {
+        static final Delta ZERO = new Delta(0, 0, BigDecimal.ZERO);
+        
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, units + other.units, amount.add(other.amount));
+        }
+        
+        boolean isZero() {
+            return count == 0 && units == 0 && amount.signum() == 0;
+        }
+    }
+    
+    private record ProductDay(LocalDate date, int productId) {}
+    
+    private static final Comparator<ProductDay> PRODUCT_DAY_ORDER =
+            Comparator.comparing(ProductDay::date).thenComparingInt(ProductDay::productId);
+    
+    private SalesRollups() {}
+    
+    static boolean isCounted(OrderState state) {
+        return state != null && COUNTED.contains(state.status());
+    }
+    
+    private static boolean isListed(OrderState state) {
+        return state != null && state.status() != OrderStatus.Cart;
+    }
+    
+    /*
+     * Moves the rollups from an order's state before a write to its state after it; null means the
+     * order does not exist on that side. lines are the order's lines when the caller has them at
+     * hand, or null to read them here if the change needs them.
+     */
+    static void apply(Connection conn, int orderId, OrderState before, OrderState after, List<OrderItem> lines)
+            throws SQLException {
+        boolean wasCounted = isCounted(before);
+        boolean nowCounted = isCounted(after);
+        boolean sameSaleDay = wasCounted && nowCounted
+                && before.orderDate().toLocalDate().equals(after.orderDate().toLocalDate());
+        
+        Map<ProductDay, Delta> products = new TreeMap<>(PRODUCT_DAY_ORDER);
+        Map<LocalDate, Delta> days = new TreeMap<>();
+        Map<Integer, Delta> customers = new TreeMap<>();
+        Map<Integer, LocalDateTime> latestOrders = new TreeMap<>();
+        Map<String, Delta> statuses = new TreeMap<>();
+        
+        // A status change within the same day leaves the product and day rows as they are
+        if ((wasCounted || nowCounted) && !sameSaleDay) {
+            List<OrderItem> orderLines = lines != null ? lines : loadLines(conn, orderId);
+            if (wasCounted) {
+                addSale(products, days, before, orderLines, -1);
+            }
+            if (nowCounted) {
+                addSale(products, days, after, orderLines, 1);
+            }
+        }
+        if (wasCounted) {
+            customers.merge(before.customerId(), new Delta(-1, 0, amount(before).negate()), Delta::plus);
+        }
+        if (nowCounted) {
+            customers.merge(after.customerId(), new Delta(1, 0, amount(after)), Delta::plus);
+        }
+        if (isListed(after) && !isListed(before)) {
+            latestOrders.put(after.customerId(), after.orderDate());
+        }
+        if (isListed(before)) {
+            statuses.merge(before.status().getValue(), new Delta(-1, 0, amount(before).negate()), Delta::plus);
+        }
+        if (isListed(after)) {
+            statuses.merge(after.status().getValue(), new Delta(1, 0, amount(after)), Delta::plus);
+        }
+        
+        int stripe = Math.floorMod(orderId, STRIPES);
+        applyProducts(conn, products, stripe);
+        for (Map.Entry<LocalDate, Delta> day : days.entrySet()) {
+            Delta delta = day.getValue();
+            if (!delta.isZero()) {
+                Object[] params = {delta.units(), delta.amount(), (int) delta.count(), Date.valueOf(day.getKey()), stripe};
+                upsert(conn, UPDATE_DAY, params, INSERT_DAY, params);
+            }
+        }
+        for (Integer customerId : unionKeys(customers, latestOrders)) {
+            Delta delta = customers.getOrDefault(customerId, Delta.ZERO);
+            LocalDateTime latest = latestOrders.get(customerId);
+            if (delta.isZero() && latest == null) {
+                continue;
+            }
+            // Without a new order, the customer's earliest date leaves last_order_date unchanged
+            Timestamp orderDate = Timestamp.valueOf(latest != null ? latest : LocalDateTime.of(1970, 1, 1, 0, 0));
+            upsert(conn, UPDATE_CUSTOMER, new Object[]{(int) delta.count(), delta.amount(), orderDate, orderDate, customerId},
+                    INSERT_CUSTOMER, new Object[]{(int) delta.count(), delta.amount(), orderDate, customerId});
+        }
+        for (Map.Entry<String, Delta> status : statuses.entrySet()) {
+            Delta delta = status.getValue();
+            if (!delta.isZero()) {
+                Object[] params = {(int) delta.count(), delta.amount(), status.getKey(), stripe};
+                upsert(conn, UPDATE_STATUS, params, INSERT_STATUS, params);
+            }
+        }
+    }
+    
+    private static void addSale(Map<ProductDay, Delta> products, Map<LocalDate, Delta> days, OrderState state,
+                                List<OrderItem> lines, int sign) {
+        LocalDate date = state.orderDate().toLocalDate();
+        long units = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (OrderItem line : lines) {
+            BigDecimal lineRevenue = line.getPriceAtOrder().multiply(BigDecimal.valueOf(line.getQuantity()));
+            products.merge(new ProductDay(date, line.getProductId()),
+                    new Delta(sign, (long) sign * line.getQuantity(), sign < 0 ? lineRevenue.negate() : lineRevenue),
+                    Delta::plus);
+            units += line.getQuantity();
+            revenue = revenue.add(lineRevenue);
+        }
+        days.merge(date, new Delta(sign, sign * units, sign < 0 ? revenue.negate() : revenue), Delta::plus);
+    }
+    
+    private static BigDecimal amount(OrderState state) {
+        return state.totalAmount() != null ? state.totalAmount() : BigDecimal.ZERO;
+    }
+    
+    private static <K extends Comparable<K>> List<K> unionKeys(Map<K, ?> first, Map<K, ?> second) {
+        TreeMap<K, Boolean> keys = new TreeMap<>();
+        first.keySet().forEach(key -> keys.put(key, true));
+        second.keySet().forEach(key -> keys.put(key, true));
+        return new ArrayList<>(keys.keySet());
+    }
+    
+    /*
+     * Row by row in key order rather than one batched update followed by inserts for the misses:
+     * the batch would lock existing rows across the whole key range before any new one, and two
+     * checkouts sharing products could then each wait on a row the other had just created.
+     */
+    private static void applyProducts(Connection conn, Map<ProductDay, Delta> products, int stripe)
+            throws SQLException {
+        for (Map.Entry<ProductDay, Delta> entry : products.entrySet()) {
+            Delta delta = entry.getValue();
+            if (!delta.isZero()) {
+                Object[] params = {delta.units(), delta.amount(), (int) delta.count(),
+                        Date.valueOf(entry.getKey().date()), entry.getKey().productId(), stripe};
+                upsert(conn, UPDATE_PRODUCT_DAY, params, INSERT_PRODUCT_DAY, params);
+            }
+        }
+    }
+    
+    private static void upsert(Connection conn, String update, Object[] updateParams, String insert,
+                               Object[] insertParams) throws SQLException {
+        if (execute(conn, update, updateParams) == 0) {
+            insertOrUpdate(conn, insert, insertParams, update, updateParams);
+        }
+    }
+    
+    private static void insertOrUpdate(Connection conn, String insert, Object[] insertParams, String update,
+                                       Object[] updateParams) throws SQLException {
+        try {
+            execute(conn, insert, insertParams);
+        } catch (SQLException e) {
+            // Another transaction created the row since our update missed it; add to theirs
+            if (!DUPLICATE_KEY.equals(e.getSQLState()) || execute(conn, update, updateParams) == 0) {
+                throw e;
+            }
+        }
+    }
+    
+    private static int execute(Connection conn, String sql, Object[] params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            return pstmt.executeUpdate();
+        }
+    }
+    
+    private static void bind(PreparedStatement pstmt, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, Objects.requireNonNull(params[i]));
+        }
+    }
+    
+    private static List<OrderItem> loadLines(Connection conn, int orderId) throws SQLException {
+        List<OrderItem> lines = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT product_id, quantity, price_at_order FROM order_item WHERE order_id = ?")) {
+            pstmt.setInt(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(new OrderItem(orderId, rs.getInt("product_id"), rs.getInt("quantity"),
+                            rs.getBigDecimal("price_at_order")));
+                }
+            }
+        }
+        return lines;
+    }
+    
+    /*
+     * Recomputes every rollup from orders and order_item in one transaction. Orders are share-locked
+     * for the duration, so checkouts and status changes wait for it rather than being missed.
+     * Returns the number of rollup rows written.
+     */
+    static long rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LOCK TABLE orders IN SHARE MODE");
+            stmt.execute("LOCK TABLE order_item IN SHARE MODE");
+            for (String table : ROLLUP_TABLES) {
+                stmt.execute("LOCK TABLE " + table + " IN EXCLUSIVE MODE");
+                stmt.executeUpdate("DELETE FROM " + table);
+            }
+            long rows = 0;
+            for (String sql : REBUILD) {
+                rows += stmt.executeUpdate(sql);
+            }
+            return rows;
+        }
+    }
+}
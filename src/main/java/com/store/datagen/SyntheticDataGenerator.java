@@ -0,0 +1,459 @@
+package com.store.datagen;
+
+import com.store.cache.RegisteredEmailFilter;
+import com.store.config.AppConfig;
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.DAOFactory;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.dto.OrderStatus;
+import com.store.dto.Status;
+import com.store.dto.UserType;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/*
+ * Fills the database with a synthetic catalog, customers with logins, and an order history shaped
+ * like real traffic, for benchmarks, load tests and query plan work at production-like volumes:
+ *
+ *   - Product popularity is Zipfian (exponent datagen.product.skew, default 1.0) over a shuffled
+ *     ranking, so best sellers are spread across the id range rather than being the first rows.
+ *   - Customer activity is a flatter Zipf (datagen.customer.skew, default 0.3): regulars order
+ *     every few days while most customers order a handful of times a year.
+ *   - Lines per order follow a Pareto tail (mostly 1-4, occasionally close to a hundred) and
+ *     quantities are geometric, so order totals have the long right tail reports have to cope with.
+ *   - Orders are spread over the last datagen.history.days days with volume growing towards today,
+ *     in id order, and their status follows their age (recent ones still Placed or Processing).
+ *
+ * Products go through ProductDAO.saveAll so the search index and count cache see them; everything
+ * else is written with batched inserts on a single connection. Orders are written in chunks under
+ * an exclusive table lock so their generated keys can be read back in insertion order, and the sales
+ * rollups are rebuilt from them at the end. Every login
+ * uses PASSWORD. Runs are repeatable for a given seed, and a second run appends rather than clashes.
+ *
+ * In-process (typically with -Dderby.profile=memory), call generate() before the code under test
+ * starts. main() builds a reusable file database sized by the datagen.* system properties, e.g.
+ *   java -Dderby.url="jdbc:derby:perf_db;create=true" -Ddatagen.orders=2000000 ... com.store.datagen.SyntheticDataGenerator
+ */
+public class SyntheticDataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    public static final String PASSWORD = "Synthetic#2024";
+    public static final String EMAIL_DOMAIN = "@synthetic.example";
+    private static final int BATCH_SIZE = AppConfig.getInt("bulk.batch.size", 500);
+    private static final int COMMIT_INTERVAL = AppConfig.getInt("bulk.commit.interval", 5000);
+    private static final int ORDERS_PER_CHUNK = 1000;
+    private static final int MAX_LINES_PER_ORDER = 100;
+    private static final double LINE_COUNT_TAIL = 1.5;
+    private static final double CANCELLED_RATE = 0.03;
+    
+    private static final String[] ADJECTIVES = {"Organic", "Fresh", "Whole", "Frozen", "Local", "Premium", "Mini",
+            "Family", "Smoked", "Roasted", "Wild", "Sweet"};
+    private static final String[] NOUNS = {"Apple", "Banana", "Milk", "Bread", "Cheese", "Rice", "Coffee", "Tomato",
+            "Yogurt", "Pasta", "Butter", "Spinach", "Salmon", "Honey", "Oats", "Lentils", "Chicken", "Almonds",
+            "Carrots", "Tea", "Olive Oil", "Eggs", "Potatoes", "Granola"};
+    private static final String[] COMPANIES = {"Green Farm", "Daily Fresh", "Harvest Co", "Blue Valley",
+            "Sunrise Foods", "Riverbend", "Golden Field", "Northern Dairy"};
+    private static final String[] FIRST_NAMES = {"Aarav", "Maria", "James", "Priya", "Chen", "Fatima", "Lucas",
+            "Sofia", "Kwame", "Yuki", "Omar", "Elena", "Ravi", "Grace", "Mateo", "Amara"};
+    private static final String[] LAST_NAMES = {"Sharma", "Garcia", "Smith", "Nguyen", "Okafor", "Rossi", "Kim",
+            "Haddad", "Novak", "Silva", "Patel", "Müller", "Tanaka", "Reddy", "Brown", "Cohen"};
+    private static final String[] STREETS = {"Main Street", "Station Road", "Park Avenue", "Lake View",
+            "Market Lane", "Hill Road", "Church Street", "Mill Lane"};
+    
+    public record Summary(int products, int customers, int orders, long orderItems, long millis) {}
+    
+    private final DerbyConnectionManager connectionManager;
+    private final int productCount;
+    private final int customerCount;
+    private final int orderCount;
+    private final int historyDays;
+    private final double productSkew;
+    private final double customerSkew;
+    private final Random random;
+    
+    public SyntheticDataGenerator(int productCount, int customerCount, int orderCount, int historyDays, long seed) {
+        if (productCount < 1 || customerCount < 1 || orderCount < 0 || historyDays < 1) {
+            throw new IllegalArgumentException("Need at least one product, one customer and one day of history");
+        }
+        this.connectionManager = DerbyConnectionManager.getInstance();
+        this.productCount = productCount;
+        this.customerCount = customerCount;
+        this.orderCount = orderCount;
+        this.historyDays = historyDays;
+        this.productSkew = AppConfig.getDouble("datagen.product.skew", 1.0);
+        this.customerSkew = AppConfig.getDouble("datagen.customer.skew", 0.3);
+        this.random = new Random(seed);
+    }
+    
+    public static void main(String[] args) throws DatabaseException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                AppConfig.getInt("datagen.products", 100_000),
+                AppConfig.getInt("datagen.customers", 200_000),
+                AppConfig.getInt("datagen.orders", 1_000_000),
+                AppConfig.getInt("datagen.history.days", 365),
+                AppConfig.getLong("datagen.seed", 42));
+        generator.generate();
+        DerbyConnectionManager.getInstance().shutdown();
+    }
+    
+    public Summary generate() throws DatabaseException {
+        long started = System.currentTimeMillis();
+        Catalog catalog = generateProducts();
+        int[] customerIds = generateCustomers();
+        long orderItems = generateOrders(catalog, customerIds);
+        // Orders were written behind OrderDAO's back, so its sales rollups have not seen them
+        DAOFactory.getInstance().getSalesReportDAO().rebuildRollups();
+        Summary summary = new Summary(catalog.ids.length, customerIds.length, orderCount, orderItems,
+                System.currentTimeMillis() - started);
+        logger.info("Generated {} products, {} customers, {} orders and {} order items in {} ms",
+                summary.products(), summary.customers(), summary.orders(), summary.orderItems(), summary.millis());
+        return summary;
+    }
+    
+    // Generated product ids with their prices in cents, and the popularity ranking over them
+    private record Catalog(int[] ids, long[] priceCents, int[] byPopularity, ZipfSampler popularity) {
+        int pick(Random random) {
+            return byPopularity[popularity.sample(random)];
+        }
+    }
+    
+    private Catalog generateProducts() throws DatabaseException {
+        long started = System.currentTimeMillis();
+        int firstId = maxId("product", "product_id") + 1;
+        Iterable<ImportRow<Product>> rows = () -> IntStream.range(0, productCount)
+                .mapToObj(i -> new ImportRow<>(i + 1, randomProduct(firstId + i)))
+                .iterator();
+        DAOFactory.getInstance().getProductDAO().saveAll(rows, new BulkLoadResult());
+        
+        int[] ids = new int[productCount];
+        long[] priceCents = new long[productCount];
+        int count = 0;
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT product_id, price FROM product WHERE product_id >= ? ORDER BY product_id")) {
+            pstmt.setInt(1, firstId);
+            pstmt.setFetchSize(connectionManager.getStreamFetchSize());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next() && count < productCount) {
+                    ids[count] = rs.getInt(1);
+                    priceCents[count] = rs.getBigDecimal(2).movePointRight(2).longValue();
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading back generated products: " + e.getMessage(), e);
+        }
+        if (count < productCount) {
+            throw new DatabaseException("Expected " + productCount + " generated products but found " + count);
+        }
+        
+        logger.info("Generated {} products in {} ms", productCount, System.currentTimeMillis() - started);
+        return new Catalog(ids, priceCents, shuffledIndexes(productCount), new ZipfSampler(productCount, productSkew));
+    }
+    
+    private Product randomProduct(int id) {
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " " + id;
+        String description = "Pack of " + (1 + random.nextInt(12)) + " " + noun.toLowerCase()
+                + ", " + (50 + random.nextInt(950)) + " g";
+        // Log-normal around 3.50 with a long tail of premium items
+        long cents = Math.round(Math.exp(Math.log(350) + 0.8 * random.nextGaussian()));
+        BigDecimal price = BigDecimal.valueOf(Math.max(25, Math.min(cents, 50_000)), 2);
+        return new Product(name, description, COMPANIES[random.nextInt(COMPANIES.length)], price,
+                random.nextInt(10) == 0 ? 0 : 10 + random.nextInt(990));
+    }
+    
+    private int[] generateCustomers() throws DatabaseException {
+        long started = System.currentTimeMillis();
+        int firstId = maxId("customer", "id") + 1;
+        // Hashed once at the configured cost: logins behave exactly as they would for registered users
+        String passwordHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(AppConfig.getInt("password.bcrypt.cost", 12)));
+        LocalDateTime historyStart = LocalDateTime.now().minusDays(historyDays);
+        RegisteredEmailFilter emailFilter = RegisteredEmailFilter.getInstance();
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement customer = conn.prepareStatement(
+                     "INSERT INTO customer (name, email, contact, address, created_date) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement login = conn.prepareStatement(
+                     "INSERT INTO login (email, password_hash, user_type, status, created_date) VALUES (?, ?, ?, ?, ?)")) {
+            
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < customerCount; i++) {
+                    String email = "customer" + (firstId + i) + EMAIL_DOMAIN;
+                    // Everyone has signed up before the first generated order
+                    Timestamp createdDate = Timestamp.valueOf(historyStart.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+                    customer.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                    customer.setString(2, email);
+                    customer.setString(3, String.format("+1555%07d", random.nextInt(10_000_000)));
+                    customer.setString(4, (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                    customer.setTimestamp(5, createdDate);
+                    customer.addBatch();
+                    login.setString(1, email);
+                    login.setString(2, passwordHash);
+                    login.setString(3, UserType.Customer.getValue());
+                    login.setString(4, Status.Active.getValue());
+                    login.setTimestamp(5, createdDate);
+                    login.addBatch();
+                    
+                    if ((i + 1) % BATCH_SIZE == 0 || i == customerCount - 1) {
+                        customer.executeBatch();
+                        login.executeBatch();
+                    }
+                    if ((i + 1) % COMMIT_INTERVAL == 0) {
+                        conn.commit();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+            for (int i = 0; i < customerCount; i++) {
+                emailFilter.add("customer" + (firstId + i) + EMAIL_DOMAIN);
+            }
+            
+            int[] ids = new int[customerCount];
+            int count = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT id FROM customer WHERE id >= ? AND email LIKE ? ORDER BY id")) {
+                pstmt.setInt(1, firstId);
+                pstmt.setString(2, "%" + EMAIL_DOMAIN);
+                pstmt.setFetchSize(connectionManager.getStreamFetchSize());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && count < customerCount) {
+                        ids[count++] = rs.getInt(1);
+                    }
+                }
+            }
+            if (count < customerCount) {
+                throw new DatabaseException("Expected " + customerCount + " generated customers but found " + count);
+            }
+            logger.info("Generated {} customers with logins in {} ms", customerCount, System.currentTimeMillis() - started);
+            return ids;
+        } catch (SQLException e) {
+            logger.error("Error generating customers", e);
+            throw new DatabaseException("Error generating customers: " + e.getMessage(), e);
+        }
+    }
+    
+    private long generateOrders(Catalog catalog, int[] customerIds) throws DatabaseException {
+        long started = System.currentTimeMillis();
+        ZipfSampler activity = new ZipfSampler(customerIds.length, customerSkew);
+        int[] customersByActivity = shuffledIndexes(customerIds.length);
+        LocalDateTime now = LocalDateTime.now();
+        long windowSeconds = Duration.ofDays(historyDays).toSeconds();
+        LocalDateTime historyStart = now.minusSeconds(windowSeconds);
+        
+        int chunkCapacity = Math.min(ORDERS_PER_CHUNK, Math.max(orderCount, 1));
+        int[] chunkCustomers = new int[chunkCapacity];
+        Timestamp[] chunkDates = new Timestamp[chunkCapacity];
+        OrderStatus[] chunkStatuses = new OrderStatus[chunkCapacity];
+        BigDecimal[] chunkTotals = new BigDecimal[chunkCapacity];
+        int[] chunkLineEnds = new int[chunkCapacity];
+        int[] lineProducts = new int[chunkCapacity * MAX_LINES_PER_ORDER];
+        int[] lineQuantities = new int[lineProducts.length];
+        int[] lineOrderIds = new int[lineProducts.length];
+        long orderItems = 0;
+        
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement insertOrder = conn.prepareStatement(
+                     "INSERT INTO orders (customer_id, order_date, status, total_amount) VALUES (?, ?, ?, ?)");
+             PreparedStatement insertItem = conn.prepareStatement(
+                     "INSERT INTO order_item (order_id, product_id, quantity, price_at_order) VALUES (?, ?, ?, ?)");
+             PreparedStatement readIds = conn.prepareStatement(
+                     "SELECT order_id FROM orders WHERE order_id > ? ORDER BY order_id");
+             Statement lock = conn.createStatement()) {
+            
+            conn.setAutoCommit(false);
+            try {
+                for (int chunkStart = 0; chunkStart < orderCount; chunkStart += chunkCapacity) {
+                    int size = Math.min(chunkCapacity, orderCount - chunkStart);
+                    int lines = 0;
+                    for (int o = 0; o < size; o++) {
+                        int k = chunkStart + o;
+                        // sqrt spacing makes order volume grow linearly towards today while staying in id order
+                        double position = Math.sqrt((k + random.nextDouble()) / orderCount);
+                        LocalDateTime orderDate = historyStart.plusSeconds((long) (position * windowSeconds));
+                        long cents = 0;
+                        int lineCount = lineCount(catalog.ids.length);
+                        int firstLine = lines;
+                        for (int l = 0; l < lineCount; l++) {
+                            int product = distinctProduct(catalog, lineProducts, firstLine, lines);
+                            int quantity = quantity();
+                            lineProducts[lines] = product;
+                            lineQuantities[lines] = quantity;
+                            cents += catalog.priceCents[product] * quantity;
+                            lines++;
+                        }
+                        chunkCustomers[o] = customerIds[customersByActivity[activity.sample(random)]];
+                        chunkDates[o] = Timestamp.valueOf(orderDate);
+                        chunkStatuses[o] = statusFor(Duration.between(orderDate, now));
+                        chunkTotals[o] = BigDecimal.valueOf(cents, 2);
+                        chunkLineEnds[o] = lines;
+                    }
+                    
+                    // Held until commit, so the keys generated for this chunk are contiguous and ours
+                    lock.execute("LOCK TABLE orders IN EXCLUSIVE MODE");
+                    int lastIdBefore = maxId(conn, "orders", "order_id");
+                    for (int o = 0; o < size; o++) {
+                        insertOrder.setInt(1, chunkCustomers[o]);
+                        insertOrder.setTimestamp(2, chunkDates[o]);
+                        insertOrder.setString(3, chunkStatuses[o].getValue());
+                        insertOrder.setBigDecimal(4, chunkTotals[o]);
+                        insertOrder.addBatch();
+                        if ((o + 1) % BATCH_SIZE == 0) {
+                            insertOrder.executeBatch();
+                        }
+                    }
+                    insertOrder.executeBatch();
+                    
+                    readIds.setInt(1, lastIdBefore);
+                    int o = 0;
+                    int line = 0;
+                    try (ResultSet rs = readIds.executeQuery()) {
+                        for (; o < size && rs.next(); o++) {
+                            int orderId = rs.getInt(1);
+                            for (; line < chunkLineEnds[o]; line++) {
+                                lineOrderIds[line] = orderId;
+                            }
+                        }
+                    }
+                    if (o < size) {
+                        throw new SQLException("Expected " + size + " new orders after id " + lastIdBefore + " but found " + o);
+                    }
+                    
+                    for (line = 0; line < lines; line++) {
+                        int product = lineProducts[line];
+                        insertItem.setInt(1, lineOrderIds[line]);
+                        insertItem.setInt(2, catalog.ids[product]);
+                        insertItem.setInt(3, lineQuantities[line]);
+                        insertItem.setBigDecimal(4, BigDecimal.valueOf(catalog.priceCents[product], 2));
+                        insertItem.addBatch();
+                        if ((line + 1) % BATCH_SIZE == 0) {
+                            insertItem.executeBatch();
+                        }
+                    }
+                    insertItem.executeBatch();
+                    conn.commit();
+                    orderItems += lines;
+                    
+                    int done = chunkStart + size;
+                    if (done % (chunkCapacity * 100) == 0) {
+                        logger.info("Generated {} of {} orders", done, orderCount);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error generating orders", e);
+            throw new DatabaseException("Error generating orders: " + e.getMessage(), e);
+        }
+        
+        logger.info("Generated {} orders with {} items in {} ms", orderCount, orderItems,
+                System.currentTimeMillis() - started);
+        return orderItems;
+    }
+    
+    // Pareto with a 1.5 tail index: median 2 lines, mean about 4, one order in a hundred has 40 or more.
+    // Never more lines than there are products, since each line is a different product
+    private int lineCount(int catalogSize) {
+        double draw = 1.0 / Math.pow(1.0 - random.nextDouble(), 1.0 / LINE_COUNT_TAIL);
+        return (int) Math.min(Math.min(MAX_LINES_PER_ORDER, catalogSize), 2 * draw - 1);
+    }
+    
+    private int quantity() {
+        int quantity = 1;
+        while (quantity < 12 && random.nextDouble() < 0.35) {
+            quantity++;
+        }
+        return quantity;
+    }
+    
+    // A popular product not already on this order; after a few collisions any product will do
+    private int distinctProduct(Catalog catalog, int[] lineProducts, int from, int to) {
+        int product = catalog.pick(random);
+        for (int attempt = 0; attempt < 10 && contains(lineProducts, from, to, product); attempt++) {
+            product = catalog.pick(random);
+        }
+        while (contains(lineProducts, from, to, product)) {
+            product = random.nextInt(catalog.ids.length);
+        }
+        return product;
+    }
+    
+    private static boolean contains(int[] values, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private OrderStatus statusFor(Duration age) {
+        if (random.nextDouble() < CANCELLED_RATE) {
+            return OrderStatus.Cancelled;
+        }
+        long hours = age.toHours();
+        if (hours < 2) {
+            return OrderStatus.Placed;
+        }
+        if (hours < 24) {
+            return OrderStatus.Processing;
+        }
+        return hours < 72 ? OrderStatus.Shipped : OrderStatus.Delivered;
+    }
+    
+    private int[] shuffledIndexes(int n) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+    
+    private int maxId(String table, String column) throws DatabaseException {
+        try (Connection conn = connectionManager.getConnection()) {
+            return maxId(conn, table, column);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading the highest " + table + " id: " + e.getMessage(), e);
+        }
+    }
+    
+    private static int maxId(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
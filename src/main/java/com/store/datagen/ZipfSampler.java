@@ -0,0 +1,39 @@
+package com.store.datagen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, by binary search over
+ * a precomputed cumulative table (8 bytes per rank). An exponent of 0 is uniform; around 1 the top 1%
+ * of ranks takes well over half the draws, which is the usual shape of retail product popularity.
+ */
+public class ZipfSampler {
+    private final double[] cumulative;
+    
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+    
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // A miss returns -(insertion point) - 1, and the insertion point is the rank whose bucket holds the draw
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+    
+    public int size() {
+        return cumulative.length;
+    }
+}
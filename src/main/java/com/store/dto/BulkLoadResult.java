@@ -0,0 +1,75 @@
+package com.store.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class BulkLoadResult {
+    // A file full of bad rows should not turn the result itself into a memory problem
+    private static final int MAX_REPORTED_REJECTS = 1000;
+    
+    public record Reject(long lineNumber, String message) {}
+    
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long rejectedCount;
+    private long elapsedMillis;
+    private final long startedAt = System.currentTimeMillis();
+    private final List<Reject> rejects = new ArrayList<>();
+    
+    public synchronized void addInserted(long count) { inserted += count; }
+    
+    public synchronized void addUpdated(long count) { updated += count; }
+    
+    // Rows a merge import matched to an existing product with identical values, so nothing was written
+    public synchronized void addUnchanged(long count) { unchanged += count; }
+    
+    public synchronized void addReject(long lineNumber, String message) {
+        rejectedCount++;
+        if (rejects.size() < MAX_REPORTED_REJECTS) {
+            rejects.add(new Reject(lineNumber, message));
+        }
+    }
+    
+    // Marks the end of the load; throughput is measured from construction to here
+    public synchronized void finish() { elapsedMillis = Math.max(1, System.currentTimeMillis() - startedAt); }
+    
+    public synchronized long getInserted() { return inserted; }
+    
+    public synchronized long getUpdated() { return updated; }
+    
+    public synchronized long getUnchanged() { return unchanged; }
+    
+    public synchronized long getRejectedCount() { return rejectedCount; }
+    
+    public synchronized long getElapsedMillis() { return elapsedMillis; }
+    
+    public synchronized long getProcessed() {
+        return inserted + updated + unchanged + rejectedCount;
+    }
+    
+    public synchronized double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : getProcessed() * 1000.0 / elapsedMillis;
+    }
+    
+    // Sorted by line number; at most the first 1000 rejects are kept
+    public synchronized List<Reject> getRejects() {
+        List<Reject> sorted = new ArrayList<>(rejects);
+        sorted.sort(Comparator.comparingLong(Reject::lineNumber));
+        return Collections.unmodifiableList(sorted);
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "BulkLoadResult{" +
+                "inserted=" + inserted +
+                ", updated=" + updated +
+                ", unchanged=" + unchanged +
+                ", rejected=" + rejectedCount +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.store.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class CustomerSales {
+    private final Integer customerId;
+    private final String name;
+    private final String email;
+    private final int orderCount;
+    private final BigDecimal lifetimeValue;
+    private final LocalDateTime lastOrderDate;
+    
+    public CustomerSales(Integer customerId, String name, String email, int orderCount,
+                         BigDecimal lifetimeValue, LocalDateTime lastOrderDate) {
+        this.customerId = customerId;
+        this.name = name;
+        this.email = email;
+        this.orderCount = orderCount;
+        this.lifetimeValue = lifetimeValue;
+        this.lastOrderDate = lastOrderDate;
+    }
+    
+    public Integer getCustomerId() { return customerId; }
+    
+    public String getName() { return name; }
+    
+    public String getEmail() { return email; }
+    
+    // Placed orders that have not been cancelled
+    public int getOrderCount() { return orderCount; }
+    
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    
+    // Latest order placed, including cancelled ones
+    public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+    
+    @Override
+    public String toString() {
+        return "CustomerSales{" +
+                "customerId=" + customerId +
+                ", name='" + name + '\'' +
+                ", orderCount=" + orderCount +
+                ", lifetimeValue=" + lifetimeValue +
+                ", lastOrderDate=" + lastOrderDate +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.store.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailySales {
+    private final LocalDate date;
+    private final int orderCount;
+    private final long units;
+    private final BigDecimal revenue;
+    
+    public DailySales(LocalDate date, int orderCount, long units, BigDecimal revenue) {
+        this.date = date;
+        this.orderCount = orderCount;
+        this.units = units;
+        this.revenue = revenue;
+    }
+    
+    public LocalDate getDate() { return date; }
+    
+    public int getOrderCount() { return orderCount; }
+    
+    public long getUnits() { return units; }
+    
+    // Sum of quantity * price_at_order over the day's order lines
+    public BigDecimal getRevenue() { return revenue; }
+    
+    @Override
+    public String toString() {
+        return "DailySales{" +
+                "date=" + date +
+                ", orderCount=" + orderCount +
+                ", units=" + units +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
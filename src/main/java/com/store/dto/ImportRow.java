@@ -0,0 +1,4 @@
+package com.store.dto;
+
+// A parsed record together with the source line it came from, so rejects can be reported by line
+public record ImportRow<T>(long lineNumber, T value) {}
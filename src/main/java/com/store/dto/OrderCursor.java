@@ -0,0 +1,52 @@
+package com.store.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public class OrderCursor {
+    private final LocalDateTime orderDate;
+    private final Integer orderId;
+    
+    public OrderCursor(LocalDateTime orderDate, Integer orderId) {
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+    
+    public LocalDateTime getOrderDate() { return orderDate; }
+    
+    public Integer getOrderId() { return orderId; }
+    
+    // Opaque to clients: base64url of "<epoch millis>.<nanos>:<order id>"
+    public String encode() {
+        Timestamp timestamp = Timestamp.valueOf(orderDate);
+        String raw = timestamp.getTime() + "." + timestamp.getNanos() + ":" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            if (colon < 0 || dot < 0 || dot > colon) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            
+            Timestamp timestamp = new Timestamp(Long.parseLong(raw.substring(0, dot)));
+            timestamp.setNanos(Integer.parseInt(raw.substring(dot + 1, colon)));
+            return new OrderCursor(timestamp.toLocalDateTime(), Integer.parseInt(raw.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderCursor{" +
+                "orderDate=" + orderDate +
+                ", orderId=" + orderId +
+                '}';
+    }
+}
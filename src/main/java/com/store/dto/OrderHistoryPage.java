@@ -0,0 +1,31 @@
+package com.store.dto;
+
+import com.store.model.Order;
+
+import java.util.List;
+
+public class OrderHistoryPage {
+    private final List<Order> orders;
+    private final String nextCursor;
+    
+    public OrderHistoryPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Each order arrives with its items, and each item with a summary of its product
+    public List<Order> getOrders() { return orders; }
+    
+    // null on the last page
+    public String getNextCursor() { return nextCursor; }
+    
+    public boolean hasNext() { return nextCursor != null; }
+    
+    @Override
+    public String toString() {
+        return "OrderHistoryPage{" +
+                "orders=" + orders.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
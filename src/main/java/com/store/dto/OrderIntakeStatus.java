@@ -0,0 +1,13 @@
+package com.store.dto;
+
+public enum OrderIntakeStatus {
+    Queued,
+    Processing,
+    Placed,
+    Cancelled,
+    Failed;
+    
+    public boolean isFinal() {
+        return this == Placed || this == Cancelled || this == Failed;
+    }
+}
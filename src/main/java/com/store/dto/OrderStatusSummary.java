@@ -0,0 +1,30 @@
+package com.store.dto;
+
+import java.math.BigDecimal;
+
+public class OrderStatusSummary {
+    private final OrderStatus status;
+    private final int orderCount;
+    private final BigDecimal totalAmount;
+    
+    public OrderStatusSummary(OrderStatus status, int orderCount, BigDecimal totalAmount) {
+        this.status = status;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+    }
+    
+    public OrderStatus getStatus() { return status; }
+    
+    public int getOrderCount() { return orderCount; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    
+    @Override
+    public String toString() {
+        return "OrderStatusSummary{" +
+                "status=" + status +
+                ", orderCount=" + orderCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
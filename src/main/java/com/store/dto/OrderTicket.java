@@ -0,0 +1,59 @@
+package com.store.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class OrderTicket {
+    private final String reference;
+    private final Integer customerId;
+    private final Integer cartOrderId;
+    private final OrderIntakeStatus status;
+    private final BigDecimal totalAmount;
+    private final List<Integer> unavailableProductIds;
+    private final String message;
+    
+    public OrderTicket(String reference, Integer customerId, Integer cartOrderId, OrderIntakeStatus status,
+                       BigDecimal totalAmount, List<Integer> unavailableProductIds, String message) {
+        this.reference = reference;
+        this.customerId = customerId;
+        this.cartOrderId = cartOrderId;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.unavailableProductIds = List.copyOf(unavailableProductIds);
+        this.message = message;
+    }
+    
+    public OrderTicket withStatus(OrderIntakeStatus status, BigDecimal totalAmount,
+                                  List<Integer> unavailableProductIds, String message) {
+        return new OrderTicket(reference, customerId, cartOrderId, status, totalAmount, unavailableProductIds, message);
+    }
+    
+    public String getReference() { return reference; }
+    
+    public Integer getCustomerId() { return customerId; }
+    
+    // A placed order keeps its cart's ID, so this is also the order ID once Placed
+    public Integer getCartOrderId() { return cartOrderId; }
+    
+    public OrderIntakeStatus getStatus() { return status; }
+    
+    // Set once Placed
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    
+    // Set when Cancelled for lack of stock
+    public List<Integer> getUnavailableProductIds() { return unavailableProductIds; }
+    
+    public String getMessage() { return message; }
+    
+    @Override
+    public String toString() {
+        return "OrderTicket{" +
+                "reference='" + reference + '\'' +
+                ", cartOrderId=" + cartOrderId +
+                ", status=" + status +
+                ", totalAmount=" + totalAmount +
+                ", unavailableProductIds=" + unavailableProductIds +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.store.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public class ProductCursor {
+    private final LocalDateTime createdDate;
+    private final Integer productId;
+    
+    public ProductCursor(LocalDateTime createdDate, Integer productId) {
+        this.createdDate = createdDate;
+        this.productId = productId;
+    }
+    
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    
+    public Integer getProductId() { return productId; }
+    
+    // Opaque to clients: base64url of "<epoch millis>.<nanos>:<product id>"
+    public String encode() {
+        Timestamp timestamp = Timestamp.valueOf(createdDate);
+        String raw = timestamp.getTime() + "." + timestamp.getNanos() + ":" + productId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            if (colon < 0 || dot < 0 || dot > colon) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            
+            Timestamp timestamp = new Timestamp(Long.parseLong(raw.substring(0, dot)));
+            timestamp.setNanos(Integer.parseInt(raw.substring(dot + 1, colon)));
+            return new ProductCursor(timestamp.toLocalDateTime(), Integer.parseInt(raw.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductCursor{" +
+                "createdDate=" + createdDate +
+                ", productId=" + productId +
+                '}';
+    }
+}
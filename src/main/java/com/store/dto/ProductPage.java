@@ -0,0 +1,35 @@
+package com.store.dto;
+
+import com.store.model.Product;
+
+import java.util.List;
+
+public class ProductPage {
+    private final List<Product> products;
+    private final String nextCursor;
+    private final int totalCount;
+    
+    public ProductPage(List<Product> products, String nextCursor, int totalCount) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+    
+    public List<Product> getProducts() { return products; }
+    
+    // null on the last page
+    public String getNextCursor() { return nextCursor; }
+    
+    public boolean hasNext() { return nextCursor != null; }
+    
+    public int getTotalCount() { return totalCount; }
+    
+    @Override
+    public String toString() {
+        return "ProductPage{" +
+                "products=" + products.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.store.dto;
+
+import java.math.BigDecimal;
+
+public class ProductSales {
+    private final Integer productId;
+    private final String productName;
+    private final int orderCount;
+    private final long units;
+    private final BigDecimal revenue;
+    
+    public ProductSales(Integer productId, String productName, int orderCount, long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.productName = productName;
+        this.orderCount = orderCount;
+        this.units = units;
+        this.revenue = revenue;
+    }
+    
+    public Integer getProductId() { return productId; }
+    
+    public String getProductName() { return productName; }
+    
+    // Orders with a line for this product
+    public int getOrderCount() { return orderCount; }
+    
+    public long getUnits() { return units; }
+    
+    public BigDecimal getRevenue() { return revenue; }
+    
+    @Override
+    public String toString() {
+        return "ProductSales{" +
+                "productId=" + productId +
+                ", productName='" + productName + '\'' +
+                ", orderCount=" + orderCount +
+                ", units=" + units +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.store.dto;
+
+import com.store.model.Product;
+
+import java.util.List;
+
+public class ProductSearchResult {
+    private final List<Product> products;
+    private final int page;
+    private final int pageSize;
+    private final int totalHits;
+    
+    public ProductSearchResult(List<Product> products, int page, int pageSize, int totalHits) {
+        this.products = products;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.totalHits = totalHits;
+    }
+    
+    public List<Product> getProducts() { return products; }
+    
+    public int getPage() { return page; }
+    
+    public int getPageSize() { return pageSize; }
+    
+    public int getTotalHits() { return totalHits; }
+    
+    public int getTotalPages() {
+        return (totalHits + pageSize - 1) / pageSize;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductSearchResult{" +
+                "products=" + products.size() +
+                ", page=" + page +
+                ", pageSize=" + pageSize +
+                ", totalHits=" + totalHits +
+                '}';
+    }
+}
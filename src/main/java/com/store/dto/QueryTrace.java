@@ -0,0 +1,61 @@
+package com.store.dto;
+
+import java.time.Instant;
+
+public class QueryTrace {
+    private final Instant startedAt;
+    private final String caller;
+    private final String sql;
+    private final String parameters;
+    private final long executeMicros;
+    private final long fetchMicros;
+    private final long rows;
+    private final boolean failed;
+    
+    public QueryTrace(Instant startedAt, String caller, String sql, String parameters,
+                      long executeMicros, long fetchMicros, long rows, boolean failed) {
+        this.startedAt = startedAt;
+        this.caller = caller;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.executeMicros = executeMicros;
+        this.fetchMicros = fetchMicros;
+        this.rows = rows;
+        this.failed = failed;
+    }
+    
+    public Instant getStartedAt() { return startedAt; }
+    
+    // Class.method:line of the first application frame that ran the statement
+    public String getCaller() { return caller; }
+    
+    public String getSql() { return sql; }
+    
+    // Bound values in order, with redacted columns masked; null for plain statements
+    public String getParameters() { return parameters; }
+    
+    public long getExecuteMicros() { return executeMicros; }
+    
+    // Time spent in ResultSet.next(); 0 for updates
+    public long getFetchMicros() { return fetchMicros; }
+    
+    public long getTotalMicros() { return executeMicros + fetchMicros; }
+    
+    // Rows read for queries, rows affected for updates, -1 when unknown
+    public long getRows() { return rows; }
+    
+    public boolean isFailed() { return failed; }
+    
+    @Override
+    public String toString() {
+        return "QueryTrace{" +
+                "caller='" + caller + '\'' +
+                ", sql='" + sql + '\'' +
+                ", parameters=" + parameters +
+                ", executeMicros=" + executeMicros +
+                ", fetchMicros=" + fetchMicros +
+                ", rows=" + rows +
+                ", failed=" + failed +
+                '}';
+    }
+}
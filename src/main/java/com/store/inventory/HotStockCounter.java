@@ -0,0 +1,91 @@
+package com.store.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Available units of one product, spread over padded cells so concurrent buyers mostly CAS
+ * different cache lines. A cell never goes below zero, so the sum can't either. When no single
+ * cell can cover a request, the taker gathers every cell under the lock and tries once more.
+ */
+final class HotStockCounter {
+    // 16 ints = 64 bytes, one cache line per cell
+    private static final int PAD = 16;
+    
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+    private final ReentrantLock gatherLock = new ReentrantLock();
+    
+    HotStockCounter(int stripes, int initialStock) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PAD);
+        spread(Math.max(0, initialStock));
+    }
+    
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PAD;
+            int current;
+            while ((current = cells.get(cell)) >= quantity) {
+                if (cells.compareAndSet(cell, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        
+        gatherLock.lock();
+        try {
+            int total = drain();
+            if (total >= quantity) {
+                spread(total - quantity);
+                return true;
+            }
+            spread(total);
+            return false;
+        } finally {
+            gatherLock.unlock();
+        }
+    }
+    
+    void give(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PAD, quantity);
+    }
+    
+    // Replaces the available count, returning what it was; takes racing with this land before or after it
+    int set(int newStock) {
+        gatherLock.lock();
+        try {
+            int previous = drain();
+            spread(Math.max(0, newStock));
+            return previous;
+        } finally {
+            gatherLock.unlock();
+        }
+    }
+    
+    int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PAD);
+        }
+        return total;
+    }
+    
+    private int drain() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PAD, 0);
+        }
+        return total;
+    }
+    
+    private void spread(int total) {
+        int share = total / stripes;
+        int remainder = total % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.store.inventory;
+
+import com.store.config.AppConfig;
+import com.store.config.DerbyConnectionManager;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Authoritative stock for products designated hot (inventory.hot.products). Buyers take units
+ * from in-memory counters; every change is written to a local journal before it is
+ * acknowledged, and a background flusher applies the accumulated deltas to product.stock in
+ * batches, advancing inventory_checkpoint in the same transaction.
+ *
+ * Checkout journals its reservations under the order's ID before committing. Recovery replays
+ * those records only if the order row exists and is no longer a cart (checkout of a saved cart
+ * journals under the cart's existing ID), so a crash on either side of the commit neither loses
+ * nor double-counts units. The flusher never passes an order that is still in flight.
+ */
+public class InventoryReservationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationEngine.class);
+    private static InventoryReservationEngine instance;
+    
+    private final DerbyConnectionManager connectionManager;
+    private final Map<Integer, HotStockCounter> counters = new ConcurrentHashMap<>();
+    private StockJournal journal;
+    private ScheduledExecutorService flusher;
+    
+    // Guarded by this: sequence assignment, journal order, the unflushed queue and in-flight orders
+    private long lastSeq;
+    private final ArrayDeque<StockJournal.Entry> unflushed = new ArrayDeque<>();
+    private final TreeMap<Long, Integer> inFlightBySeq = new TreeMap<>();
+    private final Map<Integer, Long> inFlightByOrder = new HashMap<>();
+    private final List<StockJournal.Segment> retiredSegments = new ArrayList<>();
+    // One flush at a time: two could apply the same batch or move the checkpoint backwards
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    private final AtomicLong reservations = new AtomicLong();
+    private final AtomicLong shortages = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private volatile long appliedSeq;
+    
+    private InventoryReservationEngine() {
+        connectionManager = DerbyConnectionManager.getInstance();
+        Set<Integer> hotProducts = parseProductIds(AppConfig.getString("inventory.hot.products", ""));
+        if (hotProducts.isEmpty()) {
+            return;
+        }
+        
+        try {
+            journal = new StockJournal(Paths.get(AppConfig.getString("inventory.journal.dir", "inventory-journal")));
+            recover();
+            loadCounters(hotProducts, AppConfig.getInt("inventory.stripes", 8));
+            journal.roll(lastSeq + 1);
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Could not start inventory engine: " + e.getMessage(), e);
+        }
+        
+        long interval = AppConfig.getLong("inventory.flush.interval.ms", 1000);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Inventory engine managing {} hot products, flushing every {} ms", counters.size(), interval);
+    }
+    
+    public static synchronized InventoryReservationEngine getInstance() {
+        if (instance == null) {
+            instance = new InventoryReservationEngine();
+        }
+        return instance;
+    }
+    
+    public boolean isHot(Integer productId) {
+        return counters.containsKey(productId);
+    }
+    
+    public int getAvailable(Integer productId) {
+        HotStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            throw new IllegalArgumentException("Product " + productId + " is not managed by the inventory engine");
+        }
+        return counter.available();
+    }
+    
+    /*
+     * All-or-nothing, in memory only: returns the products that could not be covered, in which
+     * case nothing was taken. A successful reservation must be followed by journal() or cancel().
+     */
+    public List<Integer> tryReserve(SortedMap<Integer, Integer> quantities) {
+        List<Integer> taken = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (!counters.get(entry.getKey()).tryTake(entry.getValue())) {
+                for (Integer productId : taken) {
+                    counters.get(productId).give(quantities.get(productId));
+                }
+                shortages.incrementAndGet();
+                return List.of(entry.getKey());
+            }
+            taken.add(entry.getKey());
+        }
+        reservations.incrementAndGet();
+        return Collections.emptyList();
+    }
+    
+    // Returns units of a reservation that was never journaled
+    public void cancel(SortedMap<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            counters.get(entry.getKey()).give(entry.getValue());
+        }
+    }
+    
+    // Makes a reservation durable under its order ID; call before the order commits, then settle()
+    public void journal(int orderId, SortedMap<Integer, Integer> quantities) throws DatabaseException {
+        List<StockJournal.Entry> entries = new ArrayList<>(quantities.size());
+        StockJournal.Segment segment;
+        synchronized (this) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                entries.add(new StockJournal.Entry(++lastSeq, entry.getKey(), -entry.getValue(), orderId));
+            }
+            segment = append(entries);
+            inFlightBySeq.put(entries.get(0).seq(), orderId);
+            inFlightByOrder.put(orderId, entries.get(0).seq());
+        }
+        sync(segment);
+    }
+    
+    /*
+     * Ends an order's reservation. A rolled-back order gets its units back, plus compensating
+     * records under the same order ID: recovery applies both or neither, depending on whether
+     * the order was placed.
+     */
+    public void settle(int orderId, SortedMap<Integer, Integer> quantities, boolean committed) {
+        synchronized (this) {
+            if (!committed) {
+                List<StockJournal.Entry> entries = new ArrayList<>(quantities.size());
+                for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                    entries.add(new StockJournal.Entry(++lastSeq, entry.getKey(), entry.getValue(), orderId));
+                }
+                try {
+                    append(entries);
+                } catch (DatabaseException e) {
+                    /*
+                     * For a saved cart the order row exists, and if the cart is placed later, recovery
+                     * would replay this attempt's reservation along with the new one. Drop the
+                     * attempt's records from the queue so the flusher never applies them; only a
+                     * crash before the checkpoint passes them can still bring them back.
+                     */
+                    Long attemptSeq = inFlightByOrder.get(orderId);
+                    if (attemptSeq != null) {
+                        unflushed.removeIf(entry -> entry.orderId() == orderId && entry.seq() >= attemptSeq);
+                    }
+                    logger.warn("Could not journal release of order {}: {}", orderId, e.getMessage());
+                }
+            }
+            Long firstSeq = inFlightByOrder.remove(orderId);
+            if (firstSeq != null) {
+                inFlightBySeq.remove(firstSeq);
+            }
+        }
+        if (!committed) {
+            cancel(quantities);
+        }
+    }
+    
+    // Admin stock changes for hot products go through here so the counters stay authoritative
+    public void setStock(Integer productId, int newStock) throws DatabaseException {
+        HotStockCounter counter = counters.get(productId);
+        StockJournal.Segment segment;
+        synchronized (this) {
+            int previous = counter.set(newStock);
+            int delta = Math.max(0, newStock) - previous;
+            if (delta == 0) {
+                return;
+            }
+            segment = append(List.of(new StockJournal.Entry(++lastSeq, productId, delta, 0)));
+        }
+        sync(segment);
+    }
+    
+    private StockJournal.Segment append(List<StockJournal.Entry> entries) throws DatabaseException {
+        try {
+            StockJournal.Segment segment = journal.append(entries);
+            unflushed.addAll(entries);
+            return segment;
+        } catch (IOException e) {
+            throw new DatabaseException("Could not write stock journal: " + e.getMessage(), e);
+        }
+    }
+    
+    private void sync(StockJournal.Segment segment) throws DatabaseException {
+        try {
+            journal.sync(segment);
+        } catch (IOException e) {
+            throw new DatabaseException("Could not sync stock journal: " + e.getMessage(), e);
+        }
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException | SQLException | IOException e) {
+            flushFailures.incrementAndGet();
+            logger.error("Inventory flush failed, will retry", e);
+        }
+    }
+    
+    public void flush() throws SQLException, IOException {
+        flushLock.lock();
+        try {
+            flushBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    private void flushBatch() throws SQLException, IOException {
+        List<StockJournal.Entry> batch = new ArrayList<>();
+        long upTo;
+        synchronized (this) {
+            // Stop short of the oldest order still deciding whether it commits
+            upTo = inFlightBySeq.isEmpty() ? lastSeq : inFlightBySeq.firstKey() - 1;
+            while (!unflushed.isEmpty() && unflushed.peekFirst().seq() <= upTo) {
+                batch.add(unflushed.pollFirst());
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Nothing journaled since the last roll (an in-flight order settled without new records):
+            // the batch is already in a retired segment, and a new one would reuse the current's name
+            if (lastSeq >= journal.current().getFirstSeq()) {
+                try {
+                    retiredSegments.add(journal.roll(lastSeq + 1));
+                } catch (IOException | RuntimeException e) {
+                    requeue(batch);
+                    throw e;
+                }
+            }
+        }
+        
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        for (StockJournal.Entry entry : batch) {
+            deltas.merge(entry.productId(), entry.delta(), Integer::sum);
+        }
+        try {
+            for (StockJournal.Segment segment : retiredSnapshot()) {
+                journal.close(segment);
+            }
+            applyDeltas(deltas, upTo);
+        } catch (SQLException | IOException | RuntimeException e) {
+            requeue(batch);
+            throw e;
+        }
+        
+        appliedSeq = upTo;
+        flushes.incrementAndGet();
+        flushedEntries.addAndGet(batch.size());
+        synchronized (this) {
+            retiredSegments.removeIf(segment -> {
+                if (segment.getLastSeq() > upTo) {
+                    return false;
+                }
+                try {
+                    journal.delete(segment);
+                    return true;
+                } catch (IOException e) {
+                    logger.warn("Could not delete applied stock journal segment: {}", e.getMessage());
+                    return false;
+                }
+            });
+        }
+    }
+    
+    // Puts a batch that was not applied back at the head of the queue, in sequence order
+    private synchronized void requeue(List<StockJournal.Entry> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            unflushed.addFirst(batch.get(i));
+        }
+    }
+    
+    private synchronized List<StockJournal.Segment> retiredSnapshot() {
+        return new ArrayList<>(retiredSegments);
+    }
+    
+    private void applyDeltas(Map<Integer, Integer> deltas, long upTo) throws SQLException {
+        try (Connection conn = connectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stock = conn.prepareStatement(
+                         "UPDATE product SET stock = stock + ? WHERE product_id = ?");
+                 PreparedStatement checkpoint = conn.prepareStatement(
+                         "UPDATE inventory_checkpoint SET applied_seq = ? WHERE id = 1")) {
+                
+                for (Map.Entry<Integer, Integer> entry : deltas.entrySet()) {
+                    if (entry.getValue() != 0) {
+                        stock.setInt(1, entry.getValue());
+                        stock.setInt(2, entry.getKey());
+                        stock.addBatch();
+                    }
+                }
+                stock.executeBatch();
+                checkpoint.setLong(1, upTo);
+                checkpoint.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    // Replays journal records past the checkpoint whose orders committed, then starts a clean journal
+    private void recover() throws IOException, SQLException {
+        List<StockJournal.Entry> entries = journal.readAll();
+        try (Connection conn = connectionManager.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT applied_seq FROM inventory_checkpoint WHERE id = 1");
+                 ResultSet rs = pstmt.executeQuery()) {
+                appliedSeq = rs.next() ? rs.getLong(1) : 0;
+            }
+            
+            Set<Integer> orderIds = new HashSet<>();
+            for (StockJournal.Entry entry : entries) {
+                if (entry.seq() > appliedSeq && entry.orderId() != 0) {
+                    orderIds.add(entry.orderId());
+                }
+            }
+            Set<Integer> committedOrders = findPlacedOrders(conn, orderIds);
+            
+            Map<Integer, Integer> deltas = new TreeMap<>();
+            int replayed = 0;
+            long maxSeq = appliedSeq;
+            for (StockJournal.Entry entry : entries) {
+                maxSeq = Math.max(maxSeq, entry.seq());
+                if (entry.seq() > appliedSeq && (entry.orderId() == 0 || committedOrders.contains(entry.orderId()))) {
+                    deltas.merge(entry.productId(), entry.delta(), Integer::sum);
+                    replayed++;
+                }
+            }
+            lastSeq = maxSeq;
+            if (maxSeq > appliedSeq) {
+                applyDeltas(deltas, maxSeq);
+                logger.info("Replayed {} of {} unapplied stock journal records", replayed,
+                        entries.stream().filter(e -> e.seq() > appliedSeq).count());
+                appliedSeq = maxSeq;
+            }
+        }
+        journal.deleteAll();
+    }
+    
+    // A cart row exists before its checkout commits, so only orders that left the Cart status count
+    private Set<Integer> findPlacedOrders(Connection conn, Set<Integer> orderIds) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        List<Integer> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += 256) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + 256));
+            StringBuilder sql = new StringBuilder("SELECT order_id FROM orders WHERE status <> 'Cart' AND order_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+    
+    private void loadCounters(Set<Integer> productIds, int stripes) throws SQLException {
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT stock FROM product WHERE product_id = ?")) {
+            for (Integer productId : productIds) {
+                pstmt.setInt(1, productId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        counters.put(productId, new HotStockCounter(stripes, rs.getInt(1)));
+                    } else {
+                        logger.warn("Hot product {} does not exist, ignoring it", productId);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static Set<Integer> parseProductIds(String value) {
+        Set<Integer> ids = new HashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                ids.add(Integer.parseInt(part.trim()));
+            }
+        }
+        return ids;
+    }
+    
+    // Final flush on orderly shutdown; anything left is replayed from the journal on the next start
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            // Let a periodic flush that is under way finish first; if it hangs, the journal is replayed on start
+            if (!flusher.awaitTermination(AppConfig.getLong("inventory.shutdown.timeout.ms", 10000),
+                    TimeUnit.MILLISECONDS)) {
+                logger.warn("Inventory flusher did not stop in time; the journal covers what it leaves");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        flushQuietly();
+        try {
+            journal.shutdown();
+        } catch (IOException e) {
+            logger.warn("Error closing stock journal: {}", e.getMessage());
+        }
+    }
+    
+    public long getReservationCount() { return reservations.get(); }
+    
+    public long getShortageCount() { return shortages.get(); }
+    
+    public long getFlushCount() { return flushes.get(); }
+    
+    public long getFlushedEntries() { return flushedEntries.get(); }
+    
+    public long getFlushFailures() { return flushFailures.get(); }
+    
+    public long getAppliedSeq() { return appliedSeq; }
+    
+    public synchronized int getUnflushedCount() { return unflushed.size(); }
+    
+    public synchronized int getInFlightOrders() { return inFlightByOrder.size(); }
+}
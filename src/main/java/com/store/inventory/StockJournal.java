@@ -0,0 +1,194 @@
+package com.store.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * Append-only log of stock deltas in fixed-size, checksummed records, split into segments so
+ * that applied history can be deleted a file at a time. A torn record at the end of a segment
+ * (crash mid-write) fails its checksum and is ignored; it was never synced, so never acknowledged.
+ */
+class StockJournal {
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+    private static final int RECORD_BYTES = 24;
+    private static final String SUFFIX = ".journal";
+    
+    // orderId 0 marks a delta that does not depend on any order committing
+    record Entry(long seq, int productId, int delta, int orderId) {}
+    
+    static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final long firstSeq;
+        // Held across force(); the segment's own monitor only guards the counters, so appends go on meanwhile
+        private final Object syncLock = new Object();
+        private long written;
+        private long synced;
+        private long lastSeq;
+        private boolean closed;
+        
+        private Segment(Path path, FileChannel channel, long firstSeq) {
+            this.path = path;
+            this.channel = channel;
+            this.firstSeq = firstSeq;
+        }
+        
+        long getFirstSeq() { return firstSeq; }
+        
+        long getLastSeq() { return lastSeq; }
+    }
+    
+    private final Path directory;
+    private Segment current;
+    
+    StockJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+    
+    // Every intact record left by earlier runs, in sequence order
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path path : listSegments()) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (buffer.remaining() >= RECORD_BYTES) {
+                long seq = buffer.getLong();
+                int productId = buffer.getInt();
+                int delta = buffer.getInt();
+                int orderId = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (checksum != checksum(seq, productId, delta, orderId)) {
+                    logger.warn("Ignoring torn stock journal record after seq {} in {}",
+                            entries.isEmpty() ? 0 : entries.get(entries.size() - 1).seq(), path.getFileName());
+                    break;
+                }
+                entries.add(new Entry(seq, productId, delta, orderId));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.seq(), b.seq()));
+        return entries;
+    }
+    
+    void deleteAll() throws IOException {
+        for (Path path : listSegments()) {
+            Files.delete(path);
+        }
+    }
+    
+    // Starts a new segment for records from firstSeq on and returns the one it replaces (null at startup)
+    synchronized Segment roll(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("stock-%020d%s", firstSeq, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        Segment previous = current;
+        current = new Segment(path, channel, firstSeq);
+        return previous;
+    }
+    
+    // The segment appends go to; its file is named after its first sequence number
+    synchronized Segment current() {
+        return current;
+    }
+    
+    // Caller assigns sequence numbers and serializes appends; returns the segment to pass to sync()
+    synchronized Segment append(List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * RECORD_BYTES);
+        for (Entry entry : entries) {
+            buffer.putLong(entry.seq());
+            buffer.putInt(entry.productId());
+            buffer.putInt(entry.delta());
+            buffer.putInt(entry.orderId());
+            buffer.putInt(checksum(entry.seq(), entry.productId(), entry.delta(), entry.orderId()));
+        }
+        buffer.flip();
+        Segment segment = current;
+        synchronized (segment) {
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer);
+            }
+            segment.written += entries.size() * (long) RECORD_BYTES;
+            segment.lastSeq = entries.get(entries.size() - 1).seq();
+        }
+        return segment;
+    }
+    
+    /*
+     * Group sync: one caller at a time forces the channel, covering everything written up to the
+     * moment it starts; callers whose records that force covered return without one of their own.
+     */
+    void sync(Segment segment) throws IOException {
+        long target;
+        synchronized (segment) {
+            if (segment.synced >= segment.written) {
+                return;
+            }
+            target = segment.written;
+        }
+        synchronized (segment.syncLock) {
+            long upTo;
+            synchronized (segment) {
+                if (segment.synced >= target) {
+                    return;
+                }
+                upTo = segment.written;
+            }
+            segment.channel.force(false);
+            synchronized (segment) {
+                segment.synced = Math.max(segment.synced, upTo);
+            }
+        }
+    }
+    
+    void close(Segment segment) throws IOException {
+        synchronized (segment.syncLock) {
+            synchronized (segment) {
+                if (!segment.closed) {
+                    segment.channel.force(false);
+                    segment.synced = segment.written;
+                    segment.channel.close();
+                    segment.closed = true;
+                }
+            }
+        }
+    }
+    
+    void delete(Segment segment) throws IOException {
+        close(segment);
+        Files.deleteIfExists(segment.path);
+    }
+    
+    synchronized void shutdown() throws IOException {
+        if (current != null) {
+            close(current);
+        }
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "stock-*" + SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        paths.sort(null);
+        return paths;
+    }
+    
+    private static int checksum(long seq, int productId, int delta, int orderId) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putLong(seq).putInt(productId).putInt(delta).putInt(orderId);
+        crc.update(buffer.array());
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,227 @@
+package com.store.inventory;
+
+import com.store.config.AppConfig;
+import com.store.config.DerbyConnectionManager;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Group commit for absolute stock writes (updateStock on products the inventory engine does not
+ * manage). Callers queue their change and block; a single writer thread drains the queue for up to
+ * stock.write.batch.window.ms (or stock.write.batch.max.ops changes) and writes the last value per
+ * product in a single transaction, so every caller in the batch shares its commit and log flush.
+ *
+ * Checkout does not come through here: its guarded decrement has to commit with the order, in
+ * the order's own transaction.
+ */
+public class StockWriteCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(StockWriteCoalescer.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int LOOKUP_SIZE = 256;
+    private static StockWriteCoalescer instance;
+    
+    // Completes with whether the product existed and so got its new stock
+    private record StockOp(Integer productId, int newStock, CompletableFuture<Boolean> done) {}
+    
+    private final DerbyConnectionManager connectionManager;
+    private final BlockingQueue<StockOp> queue = new LinkedBlockingQueue<>();
+    private final int maxOps;
+    private final long windowNanos;
+    private final long timeoutMillis;
+    private Thread writer;
+    
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong ops = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    
+    private StockWriteCoalescer() {
+        connectionManager = DerbyConnectionManager.getInstance();
+        maxOps = AppConfig.getInt("stock.write.batch.max.ops", 256);
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("stock.write.batch.window.ms", 1));
+        timeoutMillis = AppConfig.getLong("stock.write.timeout.ms", 30000);
+        if (AppConfig.getBoolean("stock.write.coalescing.enabled", true)) {
+            writer = new Thread(this::drain, "stock-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+    
+    public static synchronized StockWriteCoalescer getInstance() {
+        if (instance == null) {
+            instance = new StockWriteCoalescer();
+        }
+        return instance;
+    }
+    
+    // False when the product does not exist
+    public boolean setStock(Integer productId, int newStock) throws DatabaseException {
+        StockOp op = new StockOp(productId, newStock, new CompletableFuture<>());
+        if (writer == null) {
+            apply(List.of(op));
+        } else {
+            queue.add(op);
+        }
+        try {
+            // Bounded, so a stuck writer fails its callers rather than hanging them
+            return op.done().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseException databaseException) {
+                throw databaseException;
+            }
+            throw new DatabaseException("Stock update failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new DatabaseException("Stock writer did not answer within " + timeoutMillis
+                    + " ms; the change may still be applied");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted waiting for the stock writer; the change may still be applied");
+        }
+    }
+    
+    private void drain() {
+        List<StockOp> batch = new ArrayList<>(maxOps);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                // Changes that arrive while a batch is committing are already waiting here
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxOps) {
+                    long remaining = deadline - System.nanoTime();
+                    StockOp next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                apply(batch);
+            } catch (InterruptedException e) {
+                fail(batch, new DatabaseException("Stock writer interrupted"));
+                return;
+            } catch (Throwable t) {
+                // Whatever went wrong, the callers in this batch must not wait for an answer that never comes
+                logger.error("Stock writer failed a batch of {} changes", batch.size(), t);
+                fail(batch, t);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void apply(List<StockOp> batch) {
+        // The last change to a product wins; rows are written in product order, as checkout locks them
+        Map<Integer, Integer> targets = new TreeMap<>();
+        for (StockOp op : batch) {
+            targets.put(op.productId(), op.newStock());
+        }
+        
+        SQLException lastError = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try (Connection conn = connectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Set<Integer> existing = write(conn, targets);
+                    conn.commit();
+                    batches.incrementAndGet();
+                    ops.addAndGet(batch.size());
+                    for (StockOp op : batch) {
+                        op.done().complete(existing.contains(op.productId()));
+                    }
+                    return;
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                lastError = e;
+                logger.warn("Stock write batch of {} changes failed (attempt {}): {}", batch.size(), attempt,
+                        e.getMessage());
+            }
+        }
+        
+        failures.incrementAndGet();
+        fail(batch, new DatabaseException("Error updating product stock: " + lastError.getMessage(), lastError));
+    }
+    
+    // Returns the products that exist, which are the ones written
+    private Set<Integer> write(Connection conn, Map<Integer, Integer> targets) throws SQLException {
+        Set<Integer> existing = findExisting(conn, new ArrayList<>(targets.keySet()));
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE product SET stock = ? WHERE product_id = ?")) {
+            int sets = 0;
+            for (Map.Entry<Integer, Integer> entry : targets.entrySet()) {
+                if (existing.contains(entry.getKey())) {
+                    pstmt.setInt(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                    sets++;
+                }
+            }
+            if (sets > 0) {
+                pstmt.executeBatch();
+            }
+        }
+        return existing;
+    }
+    
+    private Set<Integer> findExisting(Connection conn, List<Integer> productIds) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        for (int from = 0; from < productIds.size(); from += LOOKUP_SIZE) {
+            List<Integer> chunk = productIds.subList(from, Math.min(productIds.size(), from + LOOKUP_SIZE));
+            int slots = Integer.highestOneBit(chunk.size());
+            if (slots < chunk.size()) {
+                slots <<= 1;
+            }
+            StringBuilder sql = new StringBuilder("SELECT product_id FROM product WHERE product_id IN (");
+            for (int i = 0; i < slots; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < slots; i++) {
+                    pstmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+    
+    private static void fail(List<StockOp> batch, Throwable cause) {
+        for (StockOp op : batch) {
+            op.done().completeExceptionally(cause);
+        }
+    }
+    
+    public long getBatchCount() { return batches.get(); }
+    
+    public long getOpCount() { return ops.get(); }
+    
+    public long getFailureCount() { return failures.get(); }
+    
+    public int getQueueDepth() { return queue.size(); }
+}
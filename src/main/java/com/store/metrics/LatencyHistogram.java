@@ -0,0 +1,111 @@
+package com.store.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Log-linear histogram of durations in microseconds: eight buckets per power of two, so a reported
+ * quantile is within about 12% of the true value. Quantiles cover the last one to two slices
+ * (metrics.window.seconds / 2 each) so they follow current behaviour; count and sum are lifetime
+ * totals, as Prometheus expects of a summary. Recording is a couple of atomic increments.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    
+    private final long sliceMillis;
+    private final AtomicLongArray[] slices = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+    private final AtomicLongArray sliceEpochs = new AtomicLongArray(2);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    
+    LatencyHistogram(long windowMillis) {
+        this.sliceMillis = Math.max(1, windowMillis / 2);
+    }
+    
+    public void record(long nanos) {
+        long epoch = System.currentTimeMillis() / sliceMillis;
+        int slice = (int) (epoch & 1);
+        if (sliceEpochs.get(slice) != epoch) {
+            rotate(slice, epoch);
+        }
+        slices[slice].incrementAndGet(indexOf(Math.max(0, nanos) / 1000));
+        count.increment();
+        sumNanos.add(nanos);
+    }
+    
+    // A sample racing with the reset of an expired slice may be dropped; that is fine for monitoring
+    private synchronized void rotate(int slice, long epoch) {
+        if (sliceEpochs.get(slice) == epoch) {
+            return;
+        }
+        AtomicLongArray buckets = slices[slice];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        sliceEpochs.set(slice, epoch);
+    }
+    
+    static int indexOf(long micros) {
+        long value = Math.min(micros, MAX_MICROS);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (magnitude - SUB_BUCKET_BITS));
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+    
+    // Largest value that lands in the bucket, so quantiles err on the slow side
+    static long upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+    
+    // Quantiles in seconds over the current window; NaN when nothing was recorded in it
+    public double[] quantiles(double... quantiles) {
+        long epoch = System.currentTimeMillis() / sliceMillis;
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int slice = 0; slice < 2; slice++) {
+            long sliceEpoch = sliceEpochs.get(slice);
+            if (sliceEpoch != epoch && sliceEpoch != epoch - 1) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                long n = slices[slice].get(i);
+                merged[i] += n;
+                total += n;
+            }
+        }
+        
+        double[] values = new double[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            if (total == 0) {
+                values[q] = Double.NaN;
+                continue;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += merged[i];
+                if (seen >= rank) {
+                    values[q] = upperBoundMicros(i) / 1_000_000.0;
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+    
+    public long getCount() { return count.sum(); }
+    
+    public double getSumSeconds() { return sumNanos.sum() / 1_000_000_000.0; }
+}
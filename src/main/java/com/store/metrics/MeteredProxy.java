@@ -0,0 +1,75 @@
+package com.store.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Wraps a DAO in a proxy that counts calls and errors and times each method, labelled with the
+ * implementation class and method name. The per-method metrics are resolved once and cached, so a
+ * call costs two nanoTime reads and a few atomic increments on top of the DAO itself.
+ */
+public final class MeteredProxy implements InvocationHandler {
+    private record MethodMetrics(Counter calls, Counter errors, LatencyHistogram latency) {}
+    
+    private static final Map<String, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+    
+    private final Object target;
+    private final String component;
+    private final Map<Method, MethodMetrics> resolved = new ConcurrentHashMap<>();
+    
+    private MeteredProxy(Object target) {
+        this.target = target;
+        this.component = target.getClass().getSimpleName();
+    }
+    
+    public static <T> T wrap(Class<T> type, T target) {
+        if (!MetricsRegistry.getInstance().isEnabled()) {
+            return target;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new MeteredProxy(target)));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return component + "[metered]";
+            }
+        }
+        
+        MethodMetrics metrics = resolved.get(method);
+        if (metrics == null) {
+            metrics = metricsFor(method);
+        }
+        metrics.calls().increment();
+        long start = System.nanoTime();
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            metrics.errors().increment();
+            throw e.getCause();
+        } finally {
+            metrics.latency().record(System.nanoTime() - start);
+        }
+    }
+    
+    private MethodMetrics metricsFor(Method method) {
+        // Overloads share one series; the DAOs only overload where the variants do the same work
+        MethodMetrics metrics = metricsByMethod.computeIfAbsent(component + "." + method.getName(), key -> {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            String[] labels = {"dao", component, "method", method.getName()};
+            return new MethodMetrics(
+                    registry.counter("store_dao_calls_total", "DAO method calls", labels),
+                    registry.counter("store_dao_errors_total", "DAO method calls that threw", labels),
+                    registry.histogram("store_dao_call_duration_seconds", "DAO method latency", labels));
+        });
+        resolved.put(method, metrics);
+        return metrics;
+    }
+}
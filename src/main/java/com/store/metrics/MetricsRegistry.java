@@ -0,0 +1,152 @@
+package com.store.metrics;
+
+import com.store.config.AppConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/*
+ * Process-wide metrics with no dependencies beyond the JDK. Metrics are created on first use and
+ * kept for the life of the JVM; callers hold on to what they get back so the hot path never goes
+ * through the registry's maps. Everything is rendered in the Prometheus text format.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.99", "0.999"};
+    private static MetricsRegistry instance;
+    
+    private enum Type { COUNTER, GAUGE, SUMMARY }
+    
+    private record Family(String name, String help, Type type, Map<String, Object> series) {}
+    
+    private final boolean enabled;
+    private final long windowMillis;
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    
+    private MetricsRegistry() {
+        enabled = AppConfig.getBoolean("metrics.enabled", true);
+        windowMillis = AppConfig.getLong("metrics.window.seconds", 60) * 1000;
+    }
+    
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // labels alternate name, value: counter("x_total", "...", "dao", "ProductDAOImpl")
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) series(name, help, Type.COUNTER, labels, Counter::new);
+    }
+    
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) series(name, help, Type.SUMMARY, labels, () -> new LatencyHistogram(windowMillis));
+    }
+    
+    // For components that already keep their own totals
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).series().put(renderLabels(labels), value);
+    }
+    
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series().put(renderLabels(labels), value);
+    }
+    
+    private Object series(String name, String help, Type type, String[] labels,
+                          Supplier<Object> factory) {
+        return family(name, help, type).series().computeIfAbsent(renderLabels(labels), key -> factory.get());
+    }
+    
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name,
+                key -> new Family(name, help, type, new ConcurrentSkipListMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a "
+                    + family.type().name().toLowerCase());
+        }
+        return family;
+    }
+    
+    public void writePrometheus(Writer out) throws IOException {
+        for (Family family : families.values()) {
+            out.write("# HELP " + family.name() + " " + family.help() + "\n");
+            out.write("# TYPE " + family.name() + " " + family.type().name().toLowerCase() + "\n");
+            for (Map.Entry<String, Object> entry : family.series().entrySet()) {
+                writeSeries(out, family.name(), entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    private static void writeSeries(Writer out, String name, String labels, Object value) throws IOException {
+        if (value instanceof Counter counter) {
+            writeSample(out, name, labels, counter.get());
+        } else if (value instanceof LongSupplier supplier) {
+            writeSample(out, name, labels, supplier.getAsLong());
+        } else if (value instanceof DoubleSupplier supplier) {
+            writeSample(out, name, labels, supplier.getAsDouble());
+        } else if (value instanceof LatencyHistogram histogram) {
+            double[] quantiles = histogram.quantiles(QUANTILES);
+            for (int i = 0; i < quantiles.length; i++) {
+                String quantileLabel = "quantile=\"" + QUANTILE_LABELS[i] + "\"";
+                String withQuantile = labels.isEmpty()
+                        ? "{" + quantileLabel + "}"
+                        : labels.substring(0, labels.length() - 1) + "," + quantileLabel + "}";
+                writeSample(out, name, withQuantile, quantiles[i]);
+            }
+            writeSample(out, name + "_sum", labels, histogram.getSumSeconds());
+            writeSample(out, name + "_count", labels, histogram.getCount());
+        }
+    }
+    
+    private static void writeSample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name);
+        out.write(labels);
+        out.write(' ');
+        if (Double.isNaN(value)) {
+            out.write("NaN");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.write(Long.toString((long) value));
+        } else {
+            out.write(Double.toString(value));
+        }
+        out.write('\n');
+    }
+    
+    private static String renderLabels(String[] labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\': sb.append("\\\\"); break;
+                    case '"': sb.append("\\\""); break;
+                    case '\n': sb.append("\\n"); break;
+                    default: sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+}
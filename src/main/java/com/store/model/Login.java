@@ -1,5 +1,8 @@
 package com.store.model;
 
+import com.store.dto.Status;
+import com.store.dto.UserType;
+
 import java.time.LocalDateTime;
 
 public class Login {
@@ -1,5 +1,7 @@
 package com.store.model;
 
+import com.store.dto.OrderStatus;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
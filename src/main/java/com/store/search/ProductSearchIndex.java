@@ -0,0 +1,367 @@
+package com.store.search;
+
+import com.store.config.AppConfig;
+import com.store.dao.DAOFactory;
+import com.store.dao.ProductChangeEvents;
+import com.store.dao.ProductChangeListener;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ProductSearchIndex implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final int NAME_WEIGHT = 3;
+    private static final int COMPANY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static ProductSearchIndex instance;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Forward index so a re-indexed or deleted product can be pulled out of exactly the lists it is in
+    private final Map<Integer, Postings[]> documents = new HashMap<>();
+    private final int minGram;
+    private final int maxGram;
+    private final boolean indexDescription;
+    private volatile boolean ready;
+    
+    public record Hits(List<Integer> productIds, int totalHits) {}
+    
+    private ProductSearchIndex() {
+        minGram = AppConfig.getInt("search.index.min.gram", 2);
+        maxGram = AppConfig.getInt("search.index.max.gram", 8);
+        indexDescription = AppConfig.getBoolean("search.index.description", true);
+    }
+    
+    public static synchronized ProductSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new ProductSearchIndex();
+            ProductChangeEvents.register(instance);
+            Thread builder = new Thread(instance::build, "product-search-index-builder");
+            builder.setDaemon(true);
+            builder.start();
+        }
+        return instance;
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    private synchronized void build() {
+        long started = System.currentTimeMillis();
+        try {
+            DAOFactory.getInstance().getProductDAO().forEach(this::index);
+            ready = true;
+            logger.info("Product search index loaded: {} products, {} terms in {} ms",
+                    getDocumentCount(), getTermCount(), System.currentTimeMillis() - started);
+        } catch (DatabaseException e) {
+            logger.error("Failed to build product search index, searches will use the database", e);
+        }
+    }
+    
+    public void index(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT, true);
+        addField(terms, product.getCompany(), COMPANY_WEIGHT, true);
+        if (indexDescription) {
+            addField(terms, product.getDescription(), DESCRIPTION_WEIGHT, false);
+        }
+        
+        int productId = product.getProductId();
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            Postings[] lists = new Postings[terms.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                Postings list = postings.computeIfAbsent(term.getKey(), Postings::new);
+                list.add(productId, term.getValue().byteValue());
+                lists[i++] = list;
+            }
+            documents.put(productId, lists);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void removeInternal(Integer productId) {
+        Postings[] lists = documents.remove(productId);
+        if (lists == null) {
+            return;
+        }
+        for (Postings list : lists) {
+            list.remove(productId);
+            if (list.size == 0) {
+                postings.remove(list.term);
+            }
+        }
+    }
+    
+    // Every query term must match (AND); hits are ranked by field-weighted idf, newest product first on ties
+    public Hits search(String query, int page, int pageSize) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || page < 1 || pageSize < 1) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+        
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = lookup(terms.get(i));
+                if (lists[i] == null) {
+                    return new Hits(Collections.emptyList(), 0);
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1.0 + (double) documents.size() / lists[i].size);
+            }
+            
+            int limit = (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(limit, 1024), RANKING.reversed());
+            int[] cursors = new int[lists.length];
+            int totalHits = 0;
+            
+            Postings smallest = lists[0];
+            candidates:
+            for (int k = 0; k < smallest.size; k++) {
+                int productId = smallest.ids[k];
+                double score = smallest.weights[k] * idf[0];
+                for (int i = 1; i < lists.length; i++) {
+                    int pos = lists[i].seek(productId, cursors[i]);
+                    cursors[i] = pos;
+                    if (pos >= lists[i].size || lists[i].ids[pos] != productId) {
+                        continue candidates;
+                    }
+                    score += lists[i].weights[pos] * idf[i];
+                }
+                
+                totalHits++;
+                ScoredDoc doc = new ScoredDoc(productId, score);
+                if (top.size() < limit) {
+                    top.add(doc);
+                } else if (RANKING.compare(doc, top.peek()) < 0) {
+                    top.poll();
+                    top.add(doc);
+                }
+            }
+            
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<Integer> productIds = new ArrayList<>(pageSize);
+            for (int i = (page - 1) * pageSize; i < ranked.size(); i++) {
+                productIds.add(ranked.get(i).productId);
+            }
+            return new Hits(productIds, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /*
+     * A term longer than maxGram is indexed as a whole word (any field, with the whole-word weight)
+     * and, where a name or company word merely starts with it, only under its maxGram prefix. The
+     * exact list is used when it is all there is; otherwise the two are merged, keeping the higher
+     * weight for a product in both.
+     */
+    private Postings lookup(String term) {
+        Postings exact = postings.get(term);
+        if (term.length() <= maxGram) {
+            return exact;
+        }
+        Postings prefix = postings.get(term.substring(0, maxGram));
+        if (prefix == null) {
+            return exact;
+        }
+        return exact == null ? prefix : Postings.union(exact, prefix);
+    }
+    
+    private void addField(Map<String, Integer> terms, String text, int fieldWeight, boolean withPrefixes) {
+        for (String token : tokenize(text)) {
+            // Whole-word matches count double
+            terms.merge(token, fieldWeight * 2, Math::max);
+            if (withPrefixes) {
+                int longest = Math.min(token.length() - 1, maxGram);
+                for (int length = minGram; length <= longest; length++) {
+                    terms.merge(token.substring(0, length), fieldWeight, Math::max);
+                }
+            }
+        }
+    }
+    
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    @Override
+    public void productSaved(Product product) {
+        index(product);
+    }
+    
+    @Override
+    public void productUpdated(Product product) {
+        index(product);
+    }
+    
+    @Override
+    public void productDeleted(Integer productId) {
+        remove(productId);
+    }
+    
+    // Re-indexing in place keeps search available; index() replaces any existing entry per product
+    @Override
+    public void productsReloaded() {
+        Thread reindexer = new Thread(this::build, "product-search-reindexer");
+        reindexer.setDaemon(true);
+        reindexer.start();
+    }
+    
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static final Comparator<ScoredDoc> RANKING = Comparator
+            .comparingDouble((ScoredDoc doc) -> doc.score).reversed()
+            .thenComparing(Comparator.comparingInt((ScoredDoc doc) -> doc.productId).reversed());
+    
+    private record ScoredDoc(int productId, double score) {}
+    
+    // Sorted product ids with a parallel weight per id; identity keys mean inserts are nearly always appends
+    private static final class Postings {
+        private final String term;
+        private int[] ids = new int[2];
+        private byte[] weights = new byte[2];
+        private int size;
+        
+        Postings(String term) {
+            this.term = term;
+        }
+        
+        void add(int productId, byte weight) {
+            int pos = size;
+            if (size > 0 && ids[size - 1] >= productId) {
+                pos = Arrays.binarySearch(ids, 0, size, productId);
+                if (pos >= 0) {
+                    weights[pos] = weight;
+                    return;
+                }
+                pos = -pos - 1;
+            }
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+            ids[pos] = productId;
+            weights[pos] = weight;
+            size++;
+        }
+        
+        void remove(int productId) {
+            int pos = Arrays.binarySearch(ids, 0, size, productId);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+            size--;
+        }
+        
+        // A merged copy for one query; the index's own lists are left alone
+        static Postings union(Postings first, Postings second) {
+            Postings merged = new Postings(first.term);
+            merged.ids = new int[first.size + second.size];
+            merged.weights = new byte[first.size + second.size];
+            int i = 0;
+            int j = 0;
+            while (i < first.size || j < second.size) {
+                int next;
+                byte weight;
+                if (j >= second.size || (i < first.size && first.ids[i] < second.ids[j])) {
+                    next = first.ids[i];
+                    weight = first.weights[i++];
+                } else if (i >= first.size || second.ids[j] < first.ids[i]) {
+                    next = second.ids[j];
+                    weight = second.weights[j++];
+                } else {
+                    next = first.ids[i];
+                    weight = (byte) Math.max(first.weights[i++], second.weights[j++]);
+                }
+                merged.ids[merged.size] = next;
+                merged.weights[merged.size] = weight;
+                merged.size++;
+            }
+            return merged;
+        }
+        
+        // Galloping search from a cursor that only moves forward during one intersection
+        int seek(int productId, int from) {
+            int bound = 1;
+            int low = from;
+            while (from + bound < size && ids[from + bound] < productId) {
+                low = from + bound;
+                bound <<= 1;
+            }
+            int high = Math.min(from + bound + 1, size);
+            int pos = Arrays.binarySearch(ids, low, high, productId);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+    }
+}
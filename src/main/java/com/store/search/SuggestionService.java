@@ -0,0 +1,399 @@
+package com.store.search;
+
+import com.store.config.AppConfig;
+import com.store.dao.DAOFactory;
+import com.store.dao.ProductChangeEvents;
+import com.store.dao.ProductChangeListener;
+import com.store.dao.ProductDAO;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SuggestionService implements ProductChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+    private static final int MAX_WORD_STARTS = 4;
+    private static SuggestionService instance;
+    
+    public enum SuggestionType { product, company }
+    
+    public record Suggestion(String text, SuggestionType type, Integer productId, long popularity) {}
+    
+    private record ProductName(String name, String company) {}
+    
+    // Live source of truth for rebuilds, so a rebuild never has to rescan the product table
+    private final Map<Integer, ProductName> products = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Integer> orderCounts = Collections.emptyMap();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final long rebuildDelayMillis;
+    private final int maxLimit;
+    
+    private SuggestionService() {
+        rebuildDelayMillis = AppConfig.getLong("suggest.rebuild.delay.ms", 2000);
+        maxLimit = AppConfig.getInt("suggest.max.limit", 20);
+        long popularityRefreshSeconds = AppConfig.getLong("suggest.popularity.refresh.seconds", 600);
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "product-suggest-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::loadAll);
+        scheduler.scheduleWithFixedDelay(this::refreshPopularity, popularityRefreshSeconds,
+                popularityRefreshSeconds, TimeUnit.SECONDS);
+    }
+    
+    public static synchronized SuggestionService getInstance() {
+        if (instance == null) {
+            instance = new SuggestionService();
+            ProductChangeEvents.register(instance);
+        }
+        return instance;
+    }
+    
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+        return snapshot.topK(normalized, Math.min(limit, maxLimit));
+    }
+    
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        try {
+            ProductDAO productDAO = DAOFactory.getInstance().getProductDAO();
+            orderCounts = productDAO.findOrderCounts();
+            productDAO.forEach(product -> products.put(product.getProductId(),
+                    new ProductName(product.getName(), product.getCompany())));
+            rebuild();
+            logger.info("Suggestion index built: {} suggestions over {} products in {} ms",
+                    snapshot.size(), products.size(), System.currentTimeMillis() - started);
+        } catch (DatabaseException e) {
+            logger.error("Failed to load products for suggestions", e);
+        }
+    }
+    
+    private void refreshPopularity() {
+        try {
+            orderCounts = DAOFactory.getInstance().getProductDAO().findOrderCounts();
+            rebuild();
+        } catch (DatabaseException e) {
+            logger.warn("Failed to refresh suggestion popularity: {}", e.getMessage());
+        }
+    }
+    
+    // Bursts of writes (bulk uploads) collapse into one rebuild after the delay
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void rebuild() {
+        try {
+            snapshot = Snapshot.build(products, orderCounts);
+        } catch (RuntimeException e) {
+            logger.error("Suggestion rebuild failed, keeping previous snapshot", e);
+        }
+    }
+    
+    @Override
+    public void productSaved(Product product) {
+        products.put(product.getProductId(), new ProductName(product.getName(), product.getCompany()));
+        scheduleRebuild();
+    }
+    
+    @Override
+    public void productUpdated(Product product) {
+        productSaved(product);
+    }
+    
+    @Override
+    public void productDeleted(Integer productId) {
+        if (products.remove(productId) != null) {
+            scheduleRebuild();
+        }
+    }
+    
+    @Override
+    public void productsReloaded() {
+        scheduler.execute(this::loadAll);
+    }
+    
+    public int size() {
+        return snapshot.size();
+    }
+    
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+    
+    /*
+     * Immutable, array-only prefix index. Every suggestion is reachable from the start of each of its
+     * first few words; a key is just (suggestion, offset) packed in a long and sorted by the text from
+     * that offset, so no substrings are materialized. A max segment tree over the sorted keys yields
+     * the top-k by popularity within any prefix range in O(k log n).
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], new SuggestionType[0],
+                new int[0], new long[0], new long[0]);
+        
+        private final String[] normalized;
+        private final String[] display;
+        private final SuggestionType[] types;
+        private final int[] productIds;
+        private final long[] weights;
+        private final long[] keys;
+        private final int[] tree;
+        private final int leaves;
+        
+        private Snapshot(String[] normalized, String[] display, SuggestionType[] types, int[] productIds,
+                         long[] weights, long[] keys) {
+            this.normalized = normalized;
+            this.display = display;
+            this.types = types;
+            this.productIds = productIds;
+            this.weights = weights;
+            this.keys = keys;
+            
+            int size = 1;
+            while (size < Math.max(1, keys.length)) {
+                size <<= 1;
+            }
+            leaves = size;
+            tree = new int[2 * size];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < keys.length; i++) {
+                tree[size + i] = i;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+        
+        static Snapshot build(Map<Integer, ProductName> products, Map<Integer, Integer> orderCounts) {
+            Map<String, Candidate> byText = new HashMap<>();
+            List<Candidate> candidates = new ArrayList<>();
+            
+            for (Map.Entry<Integer, ProductName> entry : products.entrySet()) {
+                long count = orderCounts.getOrDefault(entry.getKey(), 0);
+                ProductName name = entry.getValue();
+                String[] texts = {name.name(), name.company()};
+                for (int t = 0; t < texts.length; t++) {
+                    String text = normalize(texts[t]);
+                    if (text.isEmpty()) {
+                        continue;
+                    }
+                    SuggestionType type = t == 0 ? SuggestionType.product : SuggestionType.company;
+                    String display = texts[t].trim();
+                    Candidate candidate = byText.computeIfAbsent(type.name() + '\u0000' + text, key -> {
+                        Candidate created = new Candidate(text, display, type);
+                        candidates.add(created);
+                        return created;
+                    });
+                    candidate.weight += count;
+                    // Several products can share a name; link the suggestion to the most ordered one
+                    if (type == SuggestionType.product && count > candidate.bestProductWeight) {
+                        candidate.bestProductWeight = count;
+                        candidate.productId = entry.getKey();
+                    }
+                }
+            }
+            
+            int n = candidates.size();
+            String[] normalized = new String[n];
+            String[] display = new String[n];
+            SuggestionType[] types = new SuggestionType[n];
+            int[] productIds = new int[n];
+            long[] weights = new long[n];
+            List<Long> keyList = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Candidate candidate = candidates.get(i);
+                normalized[i] = candidate.normalized;
+                display[i] = candidate.display;
+                types[i] = candidate.type;
+                productIds[i] = candidate.productId;
+                weights[i] = candidate.weight;
+                
+                String text = candidate.normalized;
+                int starts = 0;
+                for (int offset = 0; offset < text.length() && starts < MAX_WORD_STARTS; offset++) {
+                    boolean wordStart = Character.isLetterOrDigit(text.charAt(offset))
+                            && (offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1)));
+                    if (wordStart) {
+                        keyList.add(((long) i << 32) | offset);
+                        starts++;
+                    }
+                }
+            }
+            
+            Long[] boxed = keyList.toArray(new Long[0]);
+            Arrays.sort(boxed, (a, b) -> compareKeys(normalized, a, b));
+            long[] keys = new long[boxed.length];
+            for (int i = 0; i < boxed.length; i++) {
+                keys[i] = boxed[i];
+            }
+            
+            return new Snapshot(normalized, display, types, productIds, weights, keys);
+        }
+        
+        List<Suggestion> topK(String prefix, int k) {
+            int from = lowerBound(prefix, false);
+            int to = lowerBound(prefix, true);
+            if (from >= to) {
+                return Collections.emptyList();
+            }
+            
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareKeyRank(a[2], b[2]));
+            ranges.add(new int[]{from, to, argMax(from, to)});
+            List<Suggestion> results = new ArrayList<>(k);
+            BitSet seen = new BitSet(normalized.length);
+            int budget = k * 4;
+            
+            while (!ranges.isEmpty() && results.size() < k && budget-- > 0) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                int suggestion = suggestionOf(keys[best]);
+                // The same suggestion can be reached through several of its words
+                if (!seen.get(suggestion)) {
+                    seen.set(suggestion);
+                    results.add(new Suggestion(display[suggestion], types[suggestion],
+                            productIds[suggestion] >= 0 ? productIds[suggestion] : null, weights[suggestion]));
+                }
+                if (range[0] < best) {
+                    ranges.add(new int[]{range[0], best, argMax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+                }
+            }
+            return results;
+        }
+        
+        // First key whose text is >= prefix, or with upper=true, the first key past all keys starting with it
+        private int lowerBound(String prefix, boolean upper) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = comparePrefix(keys[mid], prefix);
+                if (cmp < 0 || (upper && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        private int comparePrefix(long key, String prefix) {
+            String text = normalized[suggestionOf(key)];
+            int offset = offsetOf(key);
+            int length = Math.min(text.length() - offset, prefix.length());
+            for (int i = 0; i < length; i++) {
+                int diff = text.charAt(offset + i) - prefix.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return text.length() - offset < prefix.length() ? -1 : 0;
+        }
+        
+        private int argMax(int from, int to) {
+            int best = -1;
+            for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+        
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return compareKeyRank(a, b) <= 0 ? a : b;
+        }
+        
+        // Higher popularity first, then shorter text, then key order
+        private int compareKeyRank(int a, int b) {
+            int sa = suggestionOf(keys[a]);
+            int sb = suggestionOf(keys[b]);
+            int cmp = Long.compare(weights[sb], weights[sa]);
+            if (cmp == 0) {
+                cmp = Integer.compare(normalized[sa].length(), normalized[sb].length());
+            }
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        }
+        
+        private static int compareKeys(String[] normalized, long a, long b) {
+            String ta = normalized[suggestionOf(a)];
+            String tb = normalized[suggestionOf(b)];
+            int oa = offsetOf(a);
+            int ob = offsetOf(b);
+            int length = Math.min(ta.length() - oa, tb.length() - ob);
+            for (int i = 0; i < length; i++) {
+                int diff = ta.charAt(oa + i) - tb.charAt(ob + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (ta.length() - oa) - (tb.length() - ob);
+        }
+        
+        private static int suggestionOf(long key) {
+            return (int) (key >>> 32);
+        }
+        
+        private static int offsetOf(long key) {
+            return (int) key;
+        }
+        
+        int size() {
+            return normalized.length;
+        }
+    }
+    
+    private static final class Candidate {
+        private final String normalized;
+        private final String display;
+        private final SuggestionType type;
+        private int productId = -1;
+        private long weight;
+        private long bestProductWeight = -1;
+        
+        Candidate(String normalized, String display, SuggestionType type) {
+            this.normalized = normalized;
+            this.display = display;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.store.service;
+
+import com.store.dao.DAOFactory;
+import com.store.dao.LoginDAO;
+import com.store.dto.Status;
+import com.store.model.Login;
+import com.store.util.DatabaseException;
+import com.store.util.PasswordHasher;
+import com.store.util.PasswordHashingBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AuthenticationService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
+    private static final AtomicLong rehashes = new AtomicLong();
+    // The new hash is stored off the BCrypt pool, so a rehash does not hold a hashing slot for a database round trip
+    private static final ExecutorService rehashWriters =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rehash-writer-", 1).factory());
+    
+    private final LoginDAO loginDAO;
+    private final PasswordHasher passwordHasher;
+    
+    public AuthenticationService() {
+        this(DAOFactory.getInstance().getLoginDAO(), PasswordHasher.getInstance());
+    }
+    
+    public AuthenticationService(LoginDAO loginDAO, PasswordHasher passwordHasher) {
+        this.loginDAO = loginDAO;
+        this.passwordHasher = passwordHasher;
+    }
+    
+    // Empty for an unknown email, inactive account or wrong password
+    public Optional<Login> authenticate(String email, String password)
+            throws DatabaseException, PasswordHashingBusyException {
+        Optional<Login> found = loginDAO.findByEmail(email);
+        if (found.isEmpty() || found.get().getStatus() != Status.Active) {
+            // Same hashing work as a real account, so response time does not reveal which emails exist
+            passwordHasher.verify(password, passwordHasher.getDummyHash());
+            return Optional.empty();
+        }
+        
+        Login login = found.get();
+        if (!passwordHasher.verify(password, login.getPasswordHash())) {
+            return Optional.empty();
+        }
+        
+        if (passwordHasher.needsRehash(login.getPasswordHash())) {
+            rehashInBackground(login, password);
+        }
+        return found;
+    }
+    
+    // The login is already decided; the upgrade is best effort and is retried on the next login if skipped
+    private void rehashInBackground(Login login, String password) {
+        String oldHash = login.getPasswordHash();
+        passwordHasher.hashAsync(password).thenAcceptAsync(newHash -> {
+            try {
+                if (loginDAO.updatePasswordHash(login.getLoginId(), oldHash, newHash)) {
+                    rehashes.incrementAndGet();
+                    logger.debug("Rehashed password for login {} at cost {}", login.getLoginId(),
+                            passwordHasher.getCost());
+                }
+            } catch (DatabaseException e) {
+                logger.warn("Could not store rehashed password for login {}: {}", login.getLoginId(), e.getMessage());
+            }
+        }, rehashWriters).exceptionally(t -> {
+            logger.debug("Skipped password rehash for login {}: {}", login.getLoginId(), t.getMessage());
+            return null;
+        });
+    }
+    
+    public static long getRehashCount() {
+        return rehashes.get();
+    }
+}
@@ -0,0 +1,318 @@
+package com.store.service;
+
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.model.Product;
+import com.store.util.CSVParsingStrategy;
+import com.store.util.FileProcessingException;
+import com.store.util.ValidationUtil;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Three-stage CSV ingest: one reader thread cuts the stream into chunks on record boundaries,
+ * a pool of workers parses and validates chunks in parallel, and the caller's thread consumes
+ * the parsed rows in file order (it is the thread that writes to the database). The queue of
+ * in-flight chunks is bounded, so a slow writer stalls the reader instead of buffering the file.
+ */
+public class CsvIngestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(CsvIngestPipeline.class);
+    private static final AtomicInteger pipelineIds = new AtomicInteger();
+    
+    private final CSVParsingStrategy parsingStrategy;
+    private final int workerThreads;
+    private final int chunkRecords;
+    private final int maxChunksInFlight;
+    
+    private record Chunk(String text, long[] lineNumbers, int recordCount) {}
+    
+    private record ParsedChunk(List<ImportRow<Product>> rows, List<BulkLoadResult.Reject> rejects) {}
+    
+    private static final CompletableFuture<ParsedChunk> END_OF_INPUT = CompletableFuture.completedFuture(null);
+    
+    public CsvIngestPipeline(CSVParsingStrategy parsingStrategy, int workerThreads, int chunkRecords,
+                             int maxChunksInFlight) {
+        this.parsingStrategy = parsingStrategy;
+        this.workerThreads = workerThreads;
+        this.chunkRecords = chunkRecords;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+    
+    public interface RowSink {
+        void accept(Iterable<ImportRow<Product>> rows) throws Exception;
+    }
+    
+    // Runs the pipeline, handing the ordered row stream to the sink (ProductDAO.saveAll or mergeAll)
+    public void run(Reader reader, BulkLoadResult result, RowSink sink) throws Exception {
+        RecordSplitter splitter = new RecordSplitter(reader);
+        String header = splitter.nextRecord();
+        if (header == null) {
+            throw new FileProcessingException("CSV file is empty");
+        }
+        validateHeader(header);
+        
+        int id = pipelineIds.incrementAndGet();
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "csv-ingest-" + id + "-worker-" + workerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<CompletableFuture<ParsedChunk>> inFlight = new ArrayBlockingQueue<>(maxChunksInFlight);
+        ReaderStage readerStage = new ReaderStage(splitter, workers, inFlight);
+        Thread readerThread = new Thread(readerStage, "csv-ingest-" + id + "-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        
+        try {
+            sink.accept(() -> new OrderedRows(inFlight, result));
+        } finally {
+            readerStage.cancelled = true;
+            readerThread.interrupt();
+            workers.shutdownNow();
+        }
+    }
+    
+    private void validateHeader(String headerLine) throws FileProcessingException {
+        try (CSVParser parser = CSVFormat.DEFAULT.parse(new StringReader(headerLine))) {
+            List<CSVRecord> records = parser.getRecords();
+            String[] headers = records.isEmpty() ? new String[0] : records.get(0).values();
+            if (!ValidationUtil.isValidCSVHeader(parsingStrategy.getExpectedHeaders(), headers)) {
+                throw new FileProcessingException("Invalid CSV header, expected: "
+                        + String.join(",", parsingStrategy.getExpectedHeaders()));
+            }
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading CSV header: " + e.getMessage(), e);
+        }
+    }
+    
+    private ParsedChunk parse(Chunk chunk) throws IOException {
+        List<ImportRow<Product>> rows = new ArrayList<>(chunk.recordCount());
+        List<BulkLoadResult.Reject> rejects = new ArrayList<>();
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader(parsingStrategy.getExpectedHeaders())
+                .setIgnoreEmptyLines(true)
+                .build();
+        
+        try (CSVParser parser = format.parse(new StringReader(chunk.text()))) {
+            int index = 0;
+            for (CSVRecord record : parser) {
+                long lineNumber = chunk.lineNumbers()[Math.min(index++, chunk.recordCount() - 1)];
+                try {
+                    rows.add(new ImportRow<>(lineNumber, parsingStrategy.parseRecord(record)));
+                } catch (FileProcessingException e) {
+                    rejects.add(new BulkLoadResult.Reject(lineNumber, e.getMessage()));
+                }
+            }
+        }
+        return new ParsedChunk(rows, rejects);
+    }
+    
+    private class ReaderStage implements Runnable {
+        private final RecordSplitter splitter;
+        private final ExecutorService workers;
+        private final BlockingQueue<CompletableFuture<ParsedChunk>> inFlight;
+        private volatile boolean cancelled;
+        
+        ReaderStage(RecordSplitter splitter, ExecutorService workers,
+                    BlockingQueue<CompletableFuture<ParsedChunk>> inFlight) {
+            this.splitter = splitter;
+            this.workers = workers;
+            this.inFlight = inFlight;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                Chunk chunk;
+                while (!cancelled && (chunk = splitter.nextChunk(chunkRecords)) != null) {
+                    Chunk toParse = chunk;
+                    CompletableFuture<ParsedChunk> future = new CompletableFuture<>();
+                    // Enqueue before submitting so the writer always sees chunks in file order
+                    inFlight.put(future);
+                    workers.execute(() -> {
+                        try {
+                            future.complete(parse(toParse));
+                        } catch (Throwable t) {
+                            future.completeExceptionally(t);
+                        }
+                    });
+                }
+                if (!cancelled) {
+                    inFlight.put(END_OF_INPUT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                logger.error("CSV reader stage failed", e);
+                try {
+                    inFlight.put(CompletableFuture.failedFuture(e));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+    
+    // Writer-side view: yields rows chunk by chunk in file order, folding parse rejects into the result
+    private static class OrderedRows implements Iterator<ImportRow<Product>> {
+        private final BlockingQueue<CompletableFuture<ParsedChunk>> inFlight;
+        private final BulkLoadResult result;
+        private Iterator<ImportRow<Product>> current = Collections.emptyIterator();
+        private boolean finished;
+        
+        OrderedRows(BlockingQueue<CompletableFuture<ParsedChunk>> inFlight, BulkLoadResult result) {
+            this.inFlight = inFlight;
+            this.result = result;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !finished) {
+                try {
+                    CompletableFuture<ParsedChunk> future = inFlight.poll(1, TimeUnit.MINUTES);
+                    if (future == null) {
+                        throw new IllegalStateException("CSV ingest stalled: no chunk parsed within a minute");
+                    }
+                    if (future == END_OF_INPUT) {
+                        finished = true;
+                        break;
+                    }
+                    ParsedChunk chunk = future.get();
+                    for (BulkLoadResult.Reject reject : chunk.rejects()) {
+                        result.addReject(reject.lineNumber(), reject.message());
+                    }
+                    current = chunk.rows().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for parsed CSV rows", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("CSV parsing failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return current.hasNext();
+        }
+        
+        @Override
+        public ImportRow<Product> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+    
+    /*
+     * Splits raw CSV text on newlines that are outside quoted fields, tracking each record's first
+     * line. Quotes follow CSVFormat.DEFAULT: only a quote that opens a field starts a quoted field,
+     * "" inside one is an escaped quote, and a quote in the middle of an unquoted field (12" pizza)
+     * is an ordinary character.
+     */
+    private static class RecordSplitter {
+        private final Reader reader;
+        private final char[] buffer = new char[64 * 1024];
+        private int position;
+        private int limit;
+        private long line = 1;
+        
+        RecordSplitter(Reader reader) {
+            this.reader = reader;
+        }
+        
+        String nextRecord() throws IOException {
+            Chunk chunk = nextChunk(1);
+            return chunk == null ? null : chunk.text();
+        }
+        
+        Chunk nextChunk(int maxRecords) throws IOException {
+            StringBuilder text = new StringBuilder(maxRecords * 64);
+            long[] lineNumbers = new long[maxRecords];
+            int records = 0;
+            int recordStart = 0;
+            long recordLine = line;
+            boolean inQuotes = false;
+            // Inside quotes, a quote is either the first half of "" or the closing quote; the next character tells
+            boolean quotePending = false;
+            boolean fieldStart = true;
+            
+            while (records < maxRecords) {
+                if (position == limit) {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        break;
+                    }
+                }
+                char c = buffer[position++];
+                text.append(c);
+                if (inQuotes && quotePending) {
+                    quotePending = false;
+                    inQuotes = c == '"';
+                    if (inQuotes) {
+                        continue;
+                    }
+                }
+                if (inQuotes) {
+                    if (c == '"') {
+                        quotePending = true;
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                } else if (c == '"' && fieldStart) {
+                    inQuotes = true;
+                    fieldStart = false;
+                } else if (c == '\n') {
+                    line++;
+                    fieldStart = true;
+                    if (isBlank(text, recordStart)) {
+                        text.setLength(recordStart);
+                    } else {
+                        lineNumbers[records++] = recordLine;
+                        recordStart = text.length();
+                    }
+                    recordLine = line;
+                } else {
+                    fieldStart = c == ',';
+                }
+            }
+            
+            // Final record without a trailing newline
+            if (records < maxRecords && !isBlank(text, recordStart)) {
+                lineNumbers[records++] = recordLine;
+            } else {
+                text.setLength(recordStart);
+            }
+            return records == 0 ? null : new Chunk(text.toString(), lineNumbers, records);
+        }
+        
+        private static boolean isBlank(StringBuilder text, int from) {
+            for (int i = from; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.store.service;
+
+import com.store.config.AppConfig;
+import com.store.dao.DAOFactory;
+import com.store.dao.OrderDAO;
+import com.store.dao.OrderItemDAO;
+import com.store.dto.OrderIntakeStatus;
+import com.store.dto.OrderStatus;
+import com.store.dto.OrderTicket;
+import com.store.model.Order;
+import com.store.model.OrderItem;
+import com.store.util.DatabaseException;
+import com.store.util.InsufficientStockException;
+import com.store.util.OrderIntakeBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Places orders off the request thread. A submission is keyed by its cart's order_id, answered at
+ * once with a ticket, and checked out by a virtual-thread worker; the client polls the ticket or
+ * waits on its completion. Submitting a cart that is already queued or placed returns the existing
+ * ticket, and because checkout only places an open cart, a resubmission that reaches the database
+ * anyway (another node, a restart) resolves to the order that was already placed.
+ *
+ * At most order.intake.max.concurrent checkouts run at once so the queue drains at the pace the
+ * connection pool can take; submissions beyond order.intake.queue.size are turned away.
+ */
+public class OrderIntakeService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+    private static OrderIntakeService instance;
+    
+    private static final class Intake {
+        private volatile OrderTicket ticket;
+        private final CompletableFuture<OrderTicket> completion = new CompletableFuture<>();
+        private volatile long finishedAt;
+        
+        Intake(OrderTicket ticket) {
+            this.ticket = ticket;
+        }
+    }
+    
+    private final OrderDAO orderDAO;
+    private final OrderItemDAO orderItemDAO;
+    private final ConcurrentHashMap<String, Intake> intakes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService sweeper;
+    private final int queueCapacity;
+    private final Semaphore queueSlots;
+    private final Semaphore checkoutPermits;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long retentionMillis;
+    
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    
+    private OrderIntakeService() {
+        DAOFactory factory = DAOFactory.getInstance();
+        orderDAO = factory.getOrderDAO();
+        orderItemDAO = factory.getOrderItemDAO();
+        queueCapacity = AppConfig.getInt("order.intake.queue.size", 1000);
+        queueSlots = new Semaphore(queueCapacity);
+        checkoutPermits = new Semaphore(AppConfig.getInt("order.intake.max.concurrent", 8));
+        maxAttempts = AppConfig.getInt("order.intake.max.attempts", 3);
+        retryBackoffMillis = AppConfig.getLong("order.intake.retry.backoff.ms", 200);
+        retentionMillis = AppConfig.getLong("order.intake.retention.ms", 900000);
+        
+        workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-intake-", 1).factory());
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-intake-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepInterval = Math.max(1000, retentionMillis / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+    
+    public static synchronized OrderIntakeService getInstance() {
+        if (instance == null) {
+            instance = new OrderIntakeService();
+        }
+        return instance;
+    }
+    
+    public static String referenceFor(Integer cartOrderId) {
+        return "cart-" + cartOrderId;
+    }
+    
+    /*
+     * Returns once the submission is queued; a duplicate gets the ticket of the one already known.
+     * Empty when the cart is not the customer's: ownership is checked before the reference is
+     * claimed, so nobody can queue, or shadow with their own ticket, a cart that is not theirs.
+     */
+    public Optional<OrderTicket> submit(Integer customerId, Integer cartOrderId)
+            throws OrderIntakeBusyException, DatabaseException {
+        String reference = referenceFor(cartOrderId);
+        Intake known = intakes.get(reference);
+        if (known != null && !isRetryable(known.ticket)) {
+            if (!customerId.equals(known.ticket.getCustomerId())) {
+                return Optional.empty();
+            }
+            duplicates.incrementAndGet();
+            return Optional.of(known.ticket);
+        }
+        Optional<Order> cart = orderDAO.findById(cartOrderId);
+        if (cart.isEmpty() || !customerId.equals(cart.get().getCustomerId())) {
+            return Optional.empty();
+        }
+        
+        Intake fresh = new Intake(new OrderTicket(reference, customerId, cartOrderId, OrderIntakeStatus.Queued,
+                null, List.of(), null));
+        // A cancelled or failed cart is still open and may be resubmitted; queued and placed ones collapse
+        Intake current = intakes.compute(reference, (key, existing) ->
+                existing == null || isRetryable(existing.ticket) ? fresh : existing);
+        if (current != fresh) {
+            duplicates.incrementAndGet();
+            return Optional.of(current.ticket);
+        }
+        
+        if (!queueSlots.tryAcquire()) {
+            intakes.remove(reference, fresh);
+            rejected.incrementAndGet();
+            throw new OrderIntakeBusyException("Order intake queue is full, try again shortly");
+        }
+        submitted.incrementAndGet();
+        workers.execute(() -> process(fresh));
+        return Optional.of(fresh.ticket);
+    }
+    
+    private static boolean isRetryable(OrderTicket ticket) {
+        return ticket.getStatus() == OrderIntakeStatus.Cancelled || ticket.getStatus() == OrderIntakeStatus.Failed;
+    }
+    
+    public Optional<OrderTicket> getTicket(String reference) {
+        Intake intake = intakes.get(reference);
+        return intake == null ? Optional.empty() : Optional.of(intake.ticket);
+    }
+    
+    // Completes with the final ticket; empty when the reference is unknown or has expired
+    public Optional<CompletableFuture<OrderTicket>> getCompletion(String reference) {
+        Intake intake = intakes.get(reference);
+        return intake == null ? Optional.empty() : Optional.of(intake.completion);
+    }
+    
+    private void process(Intake intake) {
+        try {
+            checkoutPermits.acquire();
+            try {
+                intake.ticket = intake.ticket.withStatus(OrderIntakeStatus.Processing, null, List.of(), null);
+                finish(intake, place(intake.ticket));
+            } finally {
+                checkoutPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(intake, intake.ticket.withStatus(OrderIntakeStatus.Failed, null, List.of(),
+                    "Order intake is shutting down"));
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error placing {}", intake.ticket.getReference(), e);
+            finish(intake, intake.ticket.withStatus(OrderIntakeStatus.Failed, null, List.of(), e.getMessage()));
+        } finally {
+            queueSlots.release();
+        }
+    }
+    
+    private OrderTicket place(OrderTicket ticket) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Optional<Order> found = orderDAO.findById(ticket.getCartOrderId());
+                if (found.isEmpty() || !found.get().getCustomerId().equals(ticket.getCustomerId())) {
+                    return ticket.withStatus(OrderIntakeStatus.Failed, null, List.of(),
+                            "Cart " + ticket.getCartOrderId() + " not found");
+                }
+                Order cart = found.get();
+                if (cart.getStatus() == OrderStatus.Cancelled) {
+                    return ticket.withStatus(OrderIntakeStatus.Cancelled, null, List.of(), "Order was cancelled");
+                }
+                if (cart.getStatus() != OrderStatus.Cart) {
+                    // Placed by an earlier submission
+                    return ticket.withStatus(OrderIntakeStatus.Placed, cart.getTotalAmount(), List.of(), null);
+                }
+                
+                List<OrderItem> items = orderItemDAO.findByOrderId(cart.getOrderId());
+                if (items.isEmpty()) {
+                    return ticket.withStatus(OrderIntakeStatus.Failed, null, List.of(), "Cart is empty");
+                }
+                cart.setOrderItems(items);
+                Order order = orderDAO.checkout(cart);
+                return ticket.withStatus(OrderIntakeStatus.Placed, order.getTotalAmount(), List.of(), null);
+            } catch (InsufficientStockException e) {
+                return ticket.withStatus(OrderIntakeStatus.Cancelled, null, e.getProductIds(), e.getMessage());
+            } catch (DatabaseException e) {
+                // Lock timeouts and a racing duplicate both land here; the next attempt re-reads the cart
+                if (attempt >= maxAttempts) {
+                    return ticket.withStatus(OrderIntakeStatus.Failed, null, List.of(), e.getMessage());
+                }
+                retries.incrementAndGet();
+                logger.warn("Placing {} failed (attempt {}), retrying: {}", ticket.getReference(), attempt,
+                        e.getMessage());
+                Thread.sleep(retryBackoffMillis * attempt);
+            }
+        }
+    }
+    
+    private void finish(Intake intake, OrderTicket ticket) {
+        switch (ticket.getStatus()) {
+            case Placed -> placed.incrementAndGet();
+            case Cancelled -> cancelled.incrementAndGet();
+            default -> failed.incrementAndGet();
+        }
+        intake.ticket = ticket;
+        intake.finishedAt = System.currentTimeMillis();
+        intake.completion.complete(ticket);
+    }
+    
+    // Finished tickets are kept for order.intake.retention.ms so clients can collect the outcome
+    private void sweep() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        Iterator<Intake> iterator = intakes.values().iterator();
+        while (iterator.hasNext()) {
+            Intake intake = iterator.next();
+            if (intake.finishedAt != 0 && intake.finishedAt < cutoff) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    public void shutdown() {
+        sweeper.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    public long getSubmittedCount() { return submitted.get(); }
+    
+    public long getDuplicateCount() { return duplicates.get(); }
+    
+    public long getRejectedCount() { return rejected.get(); }
+    
+    public long getPlacedCount() { return placed.get(); }
+    
+    public long getCancelledCount() { return cancelled.get(); }
+    
+    public long getFailedCount() { return failed.get(); }
+    
+    public long getRetryCount() { return retries.get(); }
+    
+    // Submissions queued or being checked out
+    public int getQueueDepth() { return queueCapacity - queueSlots.availablePermits(); }
+    
+    public int getQueueCapacity() { return queueCapacity; }
+}
@@ -0,0 +1,143 @@
+package com.store.service;
+
+import com.store.config.AppConfig;
+import com.store.dao.DAOFactory;
+import com.store.dao.ProductDAO;
+import com.store.dto.BulkLoadResult;
+import com.store.dto.ImportRow;
+import com.store.model.Product;
+import com.store.util.CSVParsingStrategy;
+import com.store.util.DatabaseException;
+import com.store.util.FileProcessingException;
+import com.store.util.ProductCSVParsingStrategy;
+import com.store.util.ValidationUtil;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    
+    private static final int PARSE_THREADS = AppConfig.getInt("bulk.parse.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final int PARSE_CHUNK_RECORDS = AppConfig.getInt("bulk.parse.chunk.records", 2000);
+    private static final int PARSE_MAX_CHUNKS_IN_FLIGHT = AppConfig.getInt("bulk.parse.max.chunks.in.flight",
+            PARSE_THREADS * 2);
+    
+    // INSERT appends every row; MERGE matches rows to existing products by name and company
+    public enum ImportMode { INSERT, MERGE }
+    
+    private final ProductDAO productDAO;
+    private final CSVParsingStrategy parsingStrategy;
+    
+    public ProductImportService() {
+        this(DAOFactory.getInstance().getProductDAO(), new ProductCSVParsingStrategy());
+    }
+    
+    public ProductImportService(ProductDAO productDAO, CSVParsingStrategy parsingStrategy) {
+        this.productDAO = productDAO;
+        this.parsingStrategy = parsingStrategy;
+    }
+    
+    public BulkLoadResult importCsv(Reader reader) throws FileProcessingException, DatabaseException {
+        return importCsv(reader, ImportMode.INSERT);
+    }
+    
+    public BulkLoadResult importCsv(Reader reader, ImportMode mode) throws FileProcessingException, DatabaseException {
+        if (PARSE_THREADS > 1) {
+            return importCsvParallel(reader, mode);
+        }
+        
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreEmptyLines(true)
+                .build();
+        
+        try (CSVParser parser = format.parse(reader)) {
+            String[] headers = parser.getHeaderNames().toArray(new String[0]);
+            if (!ValidationUtil.isValidCSVHeader(parsingStrategy.getExpectedHeaders(), headers)) {
+                throw new FileProcessingException("Invalid CSV header, expected: "
+                        + String.join(",", parsingStrategy.getExpectedHeaders()));
+            }
+            
+            BulkLoadResult result = new BulkLoadResult();
+            write(() -> new ParsingIterator(parser.iterator(), result), result, mode);
+            return result;
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading CSV file: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new FileProcessingException("Error reading CSV file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private BulkLoadResult importCsvParallel(Reader reader, ImportMode mode) throws FileProcessingException, DatabaseException {
+        CsvIngestPipeline pipeline = new CsvIngestPipeline(parsingStrategy, PARSE_THREADS, PARSE_CHUNK_RECORDS,
+                PARSE_MAX_CHUNKS_IN_FLIGHT);
+        BulkLoadResult result = new BulkLoadResult();
+        try {
+            pipeline.run(reader, result, rows -> write(rows, result, mode));
+            return result;
+        } catch (FileProcessingException | DatabaseException e) {
+            throw e;
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new FileProcessingException("Error processing CSV file: " + cause.getMessage(), e);
+        }
+    }
+    
+    private void write(Iterable<ImportRow<Product>> rows, BulkLoadResult result, ImportMode mode)
+            throws DatabaseException {
+        if (mode == ImportMode.MERGE) {
+            productDAO.mergeAll(rows, result);
+        } else {
+            productDAO.saveAll(rows, result);
+        }
+    }
+    
+    // Parses lazily as the DAO pulls rows, so the file is never held in memory; bad records become rejects
+    private class ParsingIterator implements Iterator<ImportRow<Product>> {
+        private final Iterator<CSVRecord> records;
+        private final BulkLoadResult result;
+        private ImportRow<Product> next;
+        
+        ParsingIterator(Iterator<CSVRecord> records, BulkLoadResult result) {
+            this.records = records;
+            this.result = result;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && records.hasNext()) {
+                CSVRecord record = records.next();
+                // Header is line 1; assumes one record per line, which holds for supplier feeds
+                long lineNumber = record.getRecordNumber() + 1;
+                try {
+                    next = new ImportRow<>(lineNumber, parsingStrategy.parseRecord(record));
+                } catch (FileProcessingException e) {
+                    logger.debug("Rejected CSV line {}: {}", lineNumber, e.getMessage());
+                    result.addReject(lineNumber, e.getMessage());
+                }
+            }
+            return next != null;
+        }
+        
+        @Override
+        public ImportRow<Product> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportRow<Product> row = next;
+            next = null;
+            return row;
+        }
+    }
+}
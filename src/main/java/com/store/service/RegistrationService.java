@@ -0,0 +1,70 @@
+package com.store.service;
+
+import com.store.dao.CustomerDAO;
+import com.store.dao.DAOFactory;
+import com.store.dao.LoginDAO;
+import com.store.dto.CustomerRegistrationDTO;
+import com.store.dto.Status;
+import com.store.dto.UserType;
+import com.store.model.Customer;
+import com.store.model.Login;
+import com.store.util.DatabaseException;
+import com.store.util.DuplicateEmailException;
+import com.store.util.PasswordHashingBusyException;
+import com.store.util.PasswordUtil;
+import com.store.util.ValidationException;
+import com.store.util.ValidationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RegistrationService {
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationService.class);
+    
+    private final LoginDAO loginDAO;
+    private final CustomerDAO customerDAO;
+    
+    public RegistrationService() {
+        this(DAOFactory.getInstance().getLoginDAO(), DAOFactory.getInstance().getCustomerDAO());
+    }
+    
+    public RegistrationService(LoginDAO loginDAO, CustomerDAO customerDAO) {
+        this.loginDAO = loginDAO;
+        this.customerDAO = customerDAO;
+    }
+    
+    public Customer register(CustomerRegistrationDTO registration) throws ValidationException,
+            DuplicateEmailException, DatabaseException, PasswordHashingBusyException {
+        ValidationUtil.validateName(registration.getName());
+        ValidationUtil.validateEmail(registration.getEmail());
+        ValidationUtil.validatePassword(registration.getPassword());
+        ValidationUtil.validatePhone(registration.getContact());
+        
+        String email = registration.getEmail().trim();
+        // Turns away a taken email before it costs a hash. The registered-email filter answers a new
+        // email without a query; only a possible match is confirmed against the database
+        if (loginDAO.existsByEmail(email)) {
+            throw new DuplicateEmailException("Email already registered: " + email);
+        }
+        String passwordHash = PasswordUtil.hashPassword(registration.getPassword());
+        
+        // Still the final word: a concurrent registration can claim the email after the check above
+        Login login = new Login(email, passwordHash, UserType.Customer, Status.Active);
+        if (!loginDAO.saveIfAbsent(login)) {
+            throw new DuplicateEmailException("Email already registered: " + email);
+        }
+        
+        Customer customer = new Customer(ValidationUtil.sanitizeInput(registration.getName()), email,
+                registration.getContact(), ValidationUtil.sanitizeInput(registration.getAddress()));
+        try {
+            return customerDAO.save(customer);
+        } catch (DatabaseException e) {
+            // Release the email again so the user can retry
+            try {
+                loginDAO.delete(login.getLoginId());
+            } catch (DatabaseException cleanup) {
+                logger.error("Could not remove login {} after failed registration", login.getLoginId(), cleanup);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.store.service;
+
+import com.store.config.AppConfig;
+import com.store.config.DerbyConnectionManager;
+import com.store.dao.DAOFactory;
+import com.store.dao.SalesReportDAO;
+import com.store.dto.CustomerSales;
+import com.store.dto.DailySales;
+import com.store.dto.OrderStatusSummary;
+import com.store.dto.ProductSales;
+import com.store.util.DatabaseException;
+import com.store.util.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/*
+ * Admin sales reporting over the rollup tables that OrderDAOImpl keeps current as orders are placed,
+ * change status and are deleted, so a report costs a scan of at most one row per day (per product
+ * for the best sellers) instead of an aggregate over every order.
+ *
+ * main rebuilds the rollups from orders and order_item. Run it after loading or editing orders
+ * outside OrderDAO - a bulk import, SQL by hand, or OrderItemDAO changes to an order already placed:
+ *   java -cp ... com.store.service.SalesReportService
+ */
+public class SalesReportService {
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+    
+    private final SalesReportDAO salesReportDAO;
+    private final int maxRangeDays;
+    private final int maxLimit;
+    
+    public SalesReportService() {
+        this(DAOFactory.getInstance().getSalesReportDAO());
+    }
+    
+    public SalesReportService(SalesReportDAO salesReportDAO) {
+        this.salesReportDAO = salesReportDAO;
+        this.maxRangeDays = AppConfig.getInt("sales.report.max.days", 366);
+        this.maxLimit = AppConfig.getInt("sales.report.max.limit", 100);
+    }
+    
+    public static void main(String[] args) throws DatabaseException {
+        new SalesReportService().rebuildRollups();
+        DerbyConnectionManager.getInstance().shutdown();
+    }
+    
+    public List<DailySales> getDailySales(LocalDate from, LocalDate to) throws ValidationException, DatabaseException {
+        validateRange(from, to);
+        return salesReportDAO.findDailySales(from, to);
+    }
+    
+    public List<ProductSales> getTopProducts(LocalDate from, LocalDate to, int limit)
+            throws ValidationException, DatabaseException {
+        validateRange(from, to);
+        return salesReportDAO.findTopProducts(from, to, clampLimit(limit));
+    }
+    
+    public List<CustomerSales> getTopCustomers(int limit) throws DatabaseException {
+        return salesReportDAO.findTopCustomers(clampLimit(limit));
+    }
+    
+    public List<OrderStatusSummary> getStatusSummary() throws DatabaseException {
+        return salesReportDAO.findStatusSummary();
+    }
+    
+    public long rebuildRollups() throws DatabaseException {
+        long started = System.currentTimeMillis();
+        long rows = salesReportDAO.rebuildRollups();
+        logger.info("Rebuilt sales rollups: {} rows in {} ms", rows, System.currentTimeMillis() - started);
+        return rows;
+    }
+    
+    private void validateRange(LocalDate from, LocalDate to) throws ValidationException {
+        if (from == null || to == null) {
+            throw new ValidationException("Both from and to dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ValidationException("The from date must not be after the to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new ValidationException("Date range must not exceed " + maxRangeDays + " days");
+        }
+    }
+    
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+}
@@ -0,0 +1,143 @@
+package com.store.servlet;
+
+import com.store.dao.CustomerDAO;
+import com.store.dao.DAOFactory;
+import com.store.dao.OrderDAO;
+import com.store.dao.OrderItemDAO;
+import com.store.dao.ProductDAO;
+import com.store.dto.OrderStatus;
+import com.store.model.Customer;
+import com.store.model.Login;
+import com.store.model.Order;
+import com.store.model.OrderItem;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * POST /cart/add with productId and quantity adds to the customer's open cart, opening one first if
+ * they have none. The line keeps the price it was added at for display; checkout reprices it anyway.
+ *
+ * Finding or opening the cart and then the line are separate statements, so adds for one customer
+ * are serialized on a lock stripe; two tabs adding at once would otherwise open two carts or write
+ * the same product twice. Derby runs embedded, so this JVM is the only one writing carts.
+ */
+@WebServlet(urlPatterns = "/cart/add", asyncSupported = true)
+public class CartServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(CartServlet.class);
+    private static final int MAX_QUANTITY = 99;
+    private static final ReentrantLock[] customerLocks = new ReentrantLock[64];
+    
+    static {
+        for (int i = 0; i < customerLocks.length; i++) {
+            customerLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    private CustomerDAO customerDAO;
+    private ProductDAO productDAO;
+    private OrderDAO orderDAO;
+    private OrderItemDAO orderItemDAO;
+    
+    @Override
+    public void init() throws ServletException {
+        DAOFactory factory = DAOFactory.getInstance();
+        customerDAO = factory.getCustomerDAO();
+        productDAO = factory.getProductDAO();
+        orderDAO = factory.getOrderDAO();
+        orderItemDAO = factory.getOrderItemDAO();
+        logger.info("Cart servlet initialized");
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        Integer productId;
+        int quantity;
+        try {
+            productId = Integer.valueOf(request.getParameter("productId"));
+            String quantityParam = request.getParameter("quantity");
+            quantity = quantityParam != null ? Integer.parseInt(quantityParam) : 1;
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid productId or quantity");
+            return;
+        }
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Quantity must be between 1 and " + MAX_QUANTITY);
+            return;
+        }
+        
+        OrderItem line;
+        try {
+            Integer customerId = resolveCustomerId(request);
+            if (customerId == null) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            Optional<Product> product = productDAO.findById(productId);
+            if (product.isEmpty()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such product");
+                return;
+            }
+            
+            ReentrantLock lock = customerLocks[Math.floorMod(customerId, customerLocks.length)];
+            lock.lock();
+            try {
+                line = addLine(customerId, product.get(), quantity);
+            } finally {
+                lock.unlock();
+            }
+        } catch (DatabaseException e) {
+            throw new ServletException("Could not update cart", e);
+        }
+        
+        response.setContentType("application/json; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.write("{\"cartId\":");
+        out.write(String.valueOf(line.getOrderId()));
+        out.write(",\"productId\":");
+        out.write(String.valueOf(line.getProductId()));
+        out.write(",\"quantity\":");
+        out.write(String.valueOf(line.getQuantity()));
+        out.write('}');
+    }
+    
+    // Caller holds the customer's lock
+    private OrderItem addLine(Integer customerId, Product product, int quantity) throws DatabaseException {
+        Optional<Order> openCart = orderDAO.findCartByCustomerId(customerId);
+        Order cart = openCart.isPresent() ? openCart.get() : orderDAO.save(new Order(customerId, OrderStatus.Cart));
+        
+        Optional<OrderItem> existing = orderItemDAO.findByOrderIdAndProductId(cart.getOrderId(), product.getProductId());
+        if (existing.isPresent()) {
+            OrderItem line = existing.get();
+            line.setQuantity(Math.min(MAX_QUANTITY, line.getQuantity() + quantity));
+            return orderItemDAO.update(line);
+        }
+        return orderItemDAO.save(new OrderItem(cart.getOrderId(), product.getProductId(), quantity, product.getPrice()));
+    }
+    
+    // Same lookup as OrderIntakeServlet: the session holds either the customer or their login
+    private Integer resolveCustomerId(HttpServletRequest request) throws DatabaseException {
+        HttpSession session = request.getSession(false);
+        Object user = session != null ? session.getAttribute("loggedInUser") : null;
+        if (user instanceof Customer customer) {
+            return customer.getId();
+        }
+        if (user instanceof Login login) {
+            return customerDAO.findByEmail(login.getEmail()).map(Customer::getId).orElse(null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.store.servlet;
+
+import com.store.model.Login;
+import com.store.service.AuthenticationService;
+import com.store.util.DatabaseException;
+import com.store.util.PasswordHashingBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.util.Optional;
+
+/*
+ * POST /login with email and password puts the login in a fresh session and answers 303 to the
+ * redirect parameter AuthenticationFilter added, or to the home page. A wrong email or password is
+ * a plain 401 either way, so the response does not say which of the two was wrong.
+ */
+@WebServlet(urlPatterns = "/login", asyncSupported = true)
+public class LoginServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(LoginServlet.class);
+    
+    private AuthenticationService authenticationService;
+    
+    @Override
+    public void init() throws ServletException {
+        authenticationService = new AuthenticationService();
+        logger.info("Login servlet initialized");
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        String email = request.getParameter("email");
+        String password = request.getParameter("password");
+        if (email == null || email.isBlank() || password == null || password.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Email and password are required");
+            return;
+        }
+        
+        Optional<Login> login;
+        try {
+            login = authenticationService.authenticate(email.trim(), password);
+        } catch (PasswordHashingBusyException e) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        } catch (DatabaseException e) {
+            throw new ServletException("Could not check login", e);
+        }
+        if (login.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid email or password");
+            return;
+        }
+        
+        // A new session ID on login, so one issued before it cannot be carried over
+        HttpSession old = request.getSession(false);
+        if (old != null) {
+            old.invalidate();
+        }
+        request.getSession(true).setAttribute("loggedInUser", login.get());
+        
+        response.setStatus(HttpServletResponse.SC_SEE_OTHER);
+        response.setHeader("Location", redirectTarget(request));
+    }
+    
+    // Only same-site paths; AuthenticationFilter passes the request URI, context path included
+    private static String redirectTarget(HttpServletRequest request) {
+        String redirect = request.getParameter("redirect");
+        if (redirect != null && redirect.startsWith("/") && !redirect.startsWith("//") && !redirect.contains("\\")) {
+            return redirect;
+        }
+        return request.getContextPath() + "/";
+    }
+}
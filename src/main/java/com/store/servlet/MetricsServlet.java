@@ -0,0 +1,30 @@
+package com.store.servlet;
+
+import com.store.metrics.MetricsRegistry;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Prometheus scrape endpoint; see MetricsRegistry for what is collected
+@WebServlet(urlPatterns = "/metrics")
+public class MetricsServlet extends HttpServlet {
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        if (!registry.isEnabled()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        response.setHeader("Cache-Control", "no-store");
+        registry.writePrometheus(response.getWriter());
+    }
+}
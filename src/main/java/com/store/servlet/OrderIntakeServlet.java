@@ -0,0 +1,143 @@
+package com.store.servlet;
+
+import com.store.dao.CustomerDAO;
+import com.store.dao.DAOFactory;
+import com.store.dto.OrderTicket;
+import com.store.model.Customer;
+import com.store.model.Login;
+import com.store.service.OrderIntakeService;
+import com.store.util.DatabaseException;
+import com.store.util.JsonUtil;
+import com.store.util.OrderIntakeBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+
+/*
+ * POST /order/place?cartId=N queues the cart and answers 202 with its ticket straight away;
+ * GET /order/status?ref=cart-N returns the ticket until it reaches Placed, Cancelled or Failed.
+ */
+@WebServlet(urlPatterns = {"/order/place", "/order/status"}, asyncSupported = true)
+public class OrderIntakeServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeServlet.class);
+    
+    private OrderIntakeService intakeService;
+    private CustomerDAO customerDAO;
+    
+    @Override
+    public void init() throws ServletException {
+        intakeService = OrderIntakeService.getInstance();
+        customerDAO = DAOFactory.getInstance().getCustomerDAO();
+        logger.info("Order intake servlet initialized");
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        Integer cartId;
+        try {
+            cartId = Integer.valueOf(request.getParameter("cartId"));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cartId");
+            return;
+        }
+        
+        Integer customerId = resolveCustomerId(request);
+        if (customerId == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        
+        OrderTicket ticket;
+        try {
+            Optional<OrderTicket> submitted = intakeService.submit(customerId, cartId);
+            if (submitted.isEmpty()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            ticket = submitted.get();
+        } catch (OrderIntakeBusyException e) {
+            response.setHeader("Retry-After", "2");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        } catch (DatabaseException e) {
+            throw new ServletException("Could not look up cart", e);
+        }
+        
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.setHeader("Location", request.getContextPath() + "/order/status?ref=" + ticket.getReference());
+        writeTicket(response, ticket);
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        Integer customerId = resolveCustomerId(request);
+        Optional<OrderTicket> ticket = intakeService.getTicket(String.valueOf(request.getParameter("ref")));
+        if (customerId == null || ticket.isEmpty() || !customerId.equals(ticket.get().getCustomerId())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        response.setHeader("Cache-Control", "no-store");
+        writeTicket(response, ticket.get());
+    }
+    
+    // The session holds either the customer or their login, depending on how they signed in
+    private Integer resolveCustomerId(HttpServletRequest request) throws ServletException {
+        HttpSession session = request.getSession(false);
+        Object user = session != null ? session.getAttribute("loggedInUser") : null;
+        if (user instanceof Customer customer) {
+            return customer.getId();
+        }
+        if (user instanceof Login login) {
+            try {
+                return customerDAO.findByEmail(login.getEmail()).map(Customer::getId).orElse(null);
+            } catch (DatabaseException e) {
+                throw new ServletException("Could not look up customer", e);
+            }
+        }
+        return null;
+    }
+    
+    private void writeTicket(HttpServletResponse response, OrderTicket ticket) throws IOException {
+        response.setContentType("application/json; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.write("{\"reference\":");
+        out.write(JsonUtil.quote(ticket.getReference()));
+        out.write(",\"orderId\":");
+        out.write(String.valueOf(ticket.getCartOrderId()));
+        out.write(",\"status\":\"");
+        out.write(ticket.getStatus().name());
+        out.write('"');
+        if (ticket.getTotalAmount() != null) {
+            out.write(",\"totalAmount\":");
+            out.write(ticket.getTotalAmount().toPlainString());
+        }
+        if (!ticket.getUnavailableProductIds().isEmpty()) {
+            out.write(",\"unavailableProductIds\":[");
+            for (int i = 0; i < ticket.getUnavailableProductIds().size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(String.valueOf(ticket.getUnavailableProductIds().get(i)));
+            }
+            out.write(']');
+        }
+        if (ticket.getMessage() != null) {
+            out.write(",\"message\":");
+            out.write(JsonUtil.quote(ticket.getMessage()));
+        }
+        out.write('}');
+    }
+}
@@ -0,0 +1,105 @@
+package com.store.servlet;
+
+import com.store.dao.DAOFactory;
+import com.store.dao.ProductDAO;
+import com.store.dto.ProductPage;
+import com.store.model.Product;
+import com.store.util.DatabaseException;
+import com.store.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/*
+ * GET /products returns one page of the catalog, newest first. ?cursor= follows nextCursor from the
+ * previous page and seeks on the index; ?page=N jumps to a numbered page, which costs an OFFSET scan
+ * that grows with N, so it is there for page links rather than for walking the whole catalog.
+ */
+@WebServlet(urlPatterns = "/products", asyncSupported = true)
+public class ProductCatalogServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogServlet.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private ProductDAO productDAO;
+    
+    @Override
+    public void init() throws ServletException {
+        productDAO = DAOFactory.getInstance().getProductDAO();
+        logger.info("Product catalog servlet initialized");
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        int pageSize;
+        Integer page = null;
+        try {
+            String sizeParam = request.getParameter("size");
+            pageSize = sizeParam != null ? Integer.parseInt(sizeParam) : DEFAULT_PAGE_SIZE;
+            String pageParam = request.getParameter("page");
+            if (pageParam != null) {
+                page = Integer.valueOf(pageParam);
+            }
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid page or size");
+            return;
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (page != null && page < 1)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid page or size");
+            return;
+        }
+        
+        ProductPage result;
+        try {
+            if (page != null) {
+                List<Product> products = productDAO.findAll(page, pageSize);
+                result = new ProductPage(products, null, productDAO.getTotalCount());
+            } else {
+                result = productDAO.findPage(request.getParameter("cursor"), pageSize);
+            }
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor");
+            return;
+        } catch (DatabaseException e) {
+            throw new ServletException("Could not load products", e);
+        }
+        
+        response.setContentType("application/json; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.write("{\"totalCount\":");
+        out.write(String.valueOf(result.getTotalCount()));
+        if (result.hasNext()) {
+            out.write(",\"nextCursor\":");
+            out.write(JsonUtil.quote(result.getNextCursor()));
+        }
+        out.write(",\"products\":[");
+        List<Product> products = result.getProducts();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"productId\":");
+            out.write(String.valueOf(product.getProductId()));
+            out.write(",\"name\":");
+            out.write(JsonUtil.quote(product.getName()));
+            out.write(",\"company\":");
+            out.write(JsonUtil.quote(product.getCompany()));
+            out.write(",\"price\":");
+            out.write(product.getPrice().toPlainString());
+            out.write(",\"inStock\":");
+            out.write(String.valueOf(product.getStock() != null && product.getStock() > 0));
+            out.write('}');
+        }
+        out.write("]}");
+    }
+}
@@ -0,0 +1,73 @@
+package com.store.servlet;
+
+import com.store.search.SuggestionService;
+import com.store.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+@WebServlet(urlPatterns = "/products/suggest", asyncSupported = true)
+public class ProductSuggestServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestServlet.class);
+    private static final int DEFAULT_LIMIT = 8;
+    
+    private SuggestionService suggestionService;
+    
+    @Override
+    public void init() throws ServletException {
+        suggestionService = SuggestionService.getInstance();
+        logger.info("Product suggest servlet initialized");
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        String query = request.getParameter("q");
+        int limit = DEFAULT_LIMIT;
+        String limitParam = request.getParameter("limit");
+        if (limitParam != null) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid limit: " + limitParam);
+                return;
+            }
+        }
+        
+        List<SuggestionService.Suggestion> suggestions = suggestionService.suggest(query, limit);
+        
+        response.setContentType("application/json; charset=UTF-8");
+        // Suggestions lag writes by a couple of seconds anyway, so let browsers reuse them briefly
+        response.setHeader("Cache-Control", "public, max-age=30");
+        
+        PrintWriter out = response.getWriter();
+        out.write("{\"query\":");
+        out.write(JsonUtil.quote(query == null ? "" : query));
+        out.write(",\"suggestions\":[");
+        for (int i = 0; i < suggestions.size(); i++) {
+            SuggestionService.Suggestion suggestion = suggestions.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"text\":");
+            out.write(JsonUtil.quote(suggestion.text()));
+            out.write(",\"type\":\"");
+            out.write(suggestion.type().name());
+            out.write('"');
+            if (suggestion.productId() != null) {
+                out.write(",\"productId\":");
+                out.write(String.valueOf(suggestion.productId()));
+            }
+            out.write('}');
+        }
+        out.write("]}");
+    }
+}
@@ -0,0 +1,171 @@
+package com.store.servlet;
+
+import com.store.dto.CustomerSales;
+import com.store.dto.DailySales;
+import com.store.dto.OrderStatusSummary;
+import com.store.dto.ProductSales;
+import com.store.dto.UserType;
+import com.store.model.Login;
+import com.store.service.SalesReportService;
+import com.store.util.DatabaseException;
+import com.store.util.JsonUtil;
+import com.store.util.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/*
+ * GET /admin/sales-report[?from=yyyy-mm-dd&to=yyyy-mm-dd&limit=n] returns daily totals, best-selling
+ * products over the range, top customers by lifetime value and order counts by status, all read
+ * from the sales rollups. The range defaults to the last 30 days including today. Admins only.
+ */
+@WebServlet(urlPatterns = "/admin/sales-report", asyncSupported = true)
+public class SalesReportServlet extends VirtualThreadServlet {
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportServlet.class);
+    private static final int DEFAULT_DAYS = 30;
+    private static final int DEFAULT_LIMIT = 10;
+    
+    private SalesReportService salesReportService;
+    
+    @Override
+    public void init() throws ServletException {
+        salesReportService = new SalesReportService();
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        HttpSession session = request.getSession(false);
+        Object user = session != null ? session.getAttribute("loggedInUser") : null;
+        if (!(user instanceof Login login) || login.getUserType() != UserType.Admin) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        
+        LocalDate to;
+        LocalDate from;
+        int limit;
+        try {
+            String toParam = request.getParameter("to");
+            String fromParam = request.getParameter("from");
+            String limitParam = request.getParameter("limit");
+            to = toParam != null ? LocalDate.parse(toParam) : LocalDate.now();
+            from = fromParam != null ? LocalDate.parse(fromParam) : to.minusDays(DEFAULT_DAYS - 1);
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_LIMIT;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid parameter: " + e.getMessage());
+            return;
+        }
+        
+        List<DailySales> days;
+        List<ProductSales> products;
+        List<CustomerSales> customers;
+        List<OrderStatusSummary> statuses;
+        try {
+            days = salesReportService.getDailySales(from, to);
+            products = salesReportService.getTopProducts(from, to, limit);
+            customers = salesReportService.getTopCustomers(limit);
+            statuses = salesReportService.getStatusSummary();
+        } catch (ValidationException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (DatabaseException e) {
+            logger.error("Error building sales report", e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        
+        response.setContentType("application/json; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter out = response.getWriter();
+        out.write("{\"from\":");
+        out.write(JsonUtil.quote(from.toString()));
+        out.write(",\"to\":");
+        out.write(JsonUtil.quote(to.toString()));
+        
+        out.write(",\"daily\":[");
+        for (int i = 0; i < days.size(); i++) {
+            DailySales day = days.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"date\":");
+            out.write(JsonUtil.quote(day.getDate().toString()));
+            out.write(",\"orders\":");
+            out.write(String.valueOf(day.getOrderCount()));
+            out.write(",\"units\":");
+            out.write(String.valueOf(day.getUnits()));
+            out.write(",\"revenue\":");
+            out.write(day.getRevenue().toPlainString());
+            out.write('}');
+        }
+        
+        out.write("],\"topProducts\":[");
+        for (int i = 0; i < products.size(); i++) {
+            ProductSales product = products.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"productId\":");
+            out.write(String.valueOf(product.getProductId()));
+            out.write(",\"name\":");
+            out.write(JsonUtil.quote(product.getProductName()));
+            out.write(",\"orders\":");
+            out.write(String.valueOf(product.getOrderCount()));
+            out.write(",\"units\":");
+            out.write(String.valueOf(product.getUnits()));
+            out.write(",\"revenue\":");
+            out.write(product.getRevenue().toPlainString());
+            out.write('}');
+        }
+        
+        out.write("],\"topCustomers\":[");
+        for (int i = 0; i < customers.size(); i++) {
+            CustomerSales customer = customers.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"customerId\":");
+            out.write(String.valueOf(customer.getCustomerId()));
+            out.write(",\"name\":");
+            out.write(JsonUtil.quote(customer.getName()));
+            out.write(",\"email\":");
+            out.write(JsonUtil.quote(customer.getEmail()));
+            out.write(",\"orders\":");
+            out.write(String.valueOf(customer.getOrderCount()));
+            out.write(",\"lifetimeValue\":");
+            out.write(customer.getLifetimeValue().toPlainString());
+            out.write(",\"lastOrderDate\":");
+            out.write(JsonUtil.quote(customer.getLastOrderDate() != null
+                    ? customer.getLastOrderDate().toString() : null));
+            out.write('}');
+        }
+        
+        out.write("],\"statuses\":[");
+        for (int i = 0; i < statuses.size(); i++) {
+            OrderStatusSummary status = statuses.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"status\":");
+            out.write(JsonUtil.quote(status.getStatus().getValue()));
+            out.write(",\"orders\":");
+            out.write(String.valueOf(status.getOrderCount()));
+            out.write(",\"totalAmount\":");
+            out.write(status.getTotalAmount().toPlainString());
+            out.write('}');
+        }
+        out.write("]}");
+    }
+}
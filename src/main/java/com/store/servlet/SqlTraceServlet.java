@@ -0,0 +1,86 @@
+package com.store.servlet;
+
+import com.store.config.DerbyConnectionManager;
+import com.store.config.QueryTracer;
+import com.store.dto.QueryTrace;
+import com.store.dto.UserType;
+import com.store.model.Login;
+import com.store.util.JsonUtil;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * GET /admin/sql-trace dumps the recent slow statements and the sampled statements, newest first.
+ * Admins only: the SQL and parameters can contain customer data.
+ */
+@WebServlet(urlPatterns = "/admin/sql-trace")
+public class SqlTraceServlet extends HttpServlet {
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        HttpSession session = request.getSession(false);
+        Object user = session != null ? session.getAttribute("loggedInUser") : null;
+        if (!(user instanceof Login login) || login.getUserType() != UserType.Admin) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        
+        Optional<QueryTracer> tracer = DerbyConnectionManager.getInstance().getQueryTracer();
+        if (tracer.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "SQL tracing is disabled");
+            return;
+        }
+        
+        response.setContentType("application/json; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter out = response.getWriter();
+        out.write("{\"slowThresholdMs\":");
+        out.write(String.valueOf(tracer.get().getSlowThresholdMillis()));
+        out.write(",\"sampleRate\":");
+        out.write(String.valueOf(tracer.get().getSampleRate()));
+        out.write(",\"slow\":");
+        writeTraces(out, tracer.get().getSlowStatements());
+        out.write(",\"samples\":");
+        writeTraces(out, tracer.get().getSamples());
+        out.write('}');
+    }
+    
+    private void writeTraces(PrintWriter out, List<QueryTrace> traces) {
+        out.write('[');
+        for (int i = 0; i < traces.size(); i++) {
+            QueryTrace trace = traces.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"startedAt\":");
+            out.write(JsonUtil.quote(trace.getStartedAt().toString()));
+            out.write(",\"caller\":");
+            out.write(JsonUtil.quote(trace.getCaller()));
+            out.write(",\"sql\":");
+            out.write(JsonUtil.quote(trace.getSql()));
+            out.write(",\"parameters\":");
+            out.write(JsonUtil.quote(trace.getParameters()));
+            out.write(",\"executeMicros\":");
+            out.write(String.valueOf(trace.getExecuteMicros()));
+            out.write(",\"fetchMicros\":");
+            out.write(String.valueOf(trace.getFetchMicros()));
+            out.write(",\"rows\":");
+            out.write(String.valueOf(trace.getRows()));
+            out.write(",\"failed\":");
+            out.write(String.valueOf(trace.isFailed()));
+            out.write('}');
+        }
+        out.write(']');
+    }
+}
@@ -0,0 +1,117 @@
+package com.store.servlet;
+
+import com.store.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Base for servlets whose handlers block on the database. With servlet.virtual.threads.enabled the
+ * request is put into async mode and the handler runs on a virtual thread, so the container
+ * thread goes straight back to accepting connections. How many handlers reach Derby at once is
+ * then bounded by the connection pool rather than the container's thread count.
+ *
+ * Subclasses keep overriding doGet/doPost as usual and must be registered with asyncSupported, as
+ * must every filter in front of them; a request that is not async-capable runs on the container
+ * thread as before. The flag is read per JVM, so two nodes can run the two modes side by side.
+ */
+public abstract class VirtualThreadServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadServlet.class);
+    private static final ExecutorService handlers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("servlet-vt-", 1).factory());
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicLong dispatched = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    
+    private final boolean virtualThreads = AppConfig.getBoolean("servlet.virtual.threads.enabled", false);
+    // Longer than the pool's max wait plus a slow query, so a timeout means something is actually stuck
+    private final long asyncTimeoutMillis = AppConfig.getLong("servlet.async.timeout.ms", 60000);
+    
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!virtualThreads || !request.isAsyncSupported()) {
+            super.service(request, response);
+            return;
+        }
+        
+        AsyncContext async = request.startAsync();
+        async.setTimeout(asyncTimeoutMillis);
+        AtomicBoolean finished = new AtomicBoolean();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    timeouts.incrementAndGet();
+                    logger.warn("Request {} timed out after {} ms on a virtual thread",
+                            request.getRequestURI(), asyncTimeoutMillis);
+                    if (!response.isCommitted()) {
+                        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    }
+                    async.complete();
+                }
+            }
+            
+            @Override
+            public void onComplete(AsyncEvent event) {}
+            
+            @Override
+            public void onError(AsyncEvent event) {}
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+        
+        try {
+            handlers.execute(() -> handle(request, response, async, finished));
+            dispatched.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // Only during shutdown
+            finished.set(true);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            async.complete();
+        }
+    }
+    
+    private void handle(HttpServletRequest request, HttpServletResponse response, AsyncContext async,
+                        AtomicBoolean finished) {
+        inFlight.incrementAndGet();
+        try {
+            super.service(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            logger.error("Error handling {} on a virtual thread", request.getRequestURI(), e);
+            if (!finished.get() && !response.isCommitted()) {
+                try {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException sendFailure) {
+                    logger.debug("Could not send error response: {}", sendFailure.getMessage());
+                }
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            if (finished.compareAndSet(false, true)) {
+                async.complete();
+            }
+        }
+    }
+    
+    public static int getInFlightCount() { return inFlight.get(); }
+    
+    public static long getDispatchedCount() { return dispatched.get(); }
+    
+    public static long getTimeoutCount() { return timeouts.get(); }
+}
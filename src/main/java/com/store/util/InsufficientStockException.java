@@ -0,0 +1,17 @@
+package com.store.util;
+
+import java.util.List;
+
+public class InsufficientStockException extends Exception {
+    private final List<Integer> productIds;
+    
+    public InsufficientStockException(String message, List<Integer> productIds) {
+        super(message);
+        this.productIds = List.copyOf(productIds);
+    }
+    
+    // Products whose stock could not cover the requested quantity
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,31 @@
+package com.store.util;
+
+public class JsonUtil {
+    
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    // Escaping '<' keeps the payload safe to inline into a page
+                    if (c < 0x20 || c == '<' || c == '>' || c == '&') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,7 @@
+package com.store.util;
+
+public class OrderIntakeBusyException extends Exception {
+    public OrderIntakeBusyException(String message) {
+        super(message);
+    }
+}
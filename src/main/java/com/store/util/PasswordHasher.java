@@ -0,0 +1,202 @@
+package com.store.util;
+
+import com.store.config.AppConfig;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Runs BCrypt on a small fixed pool with a bounded queue. A login storm queues up to the limit and
+ * is then turned away immediately, instead of every request thread burning CPU on hashes and
+ * starving the rest of the store.
+ */
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static PasswordHasher instance;
+    
+    private final int cost;
+    private final int queueCapacity;
+    private final long maxWaitMillis;
+    private final ThreadPoolExecutor executor;
+    private final String dummyHash;
+    
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong verifyNanos = new AtomicLong();
+    private final AtomicLong maxWorkNanos = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    
+    private PasswordHasher() {
+        cost = AppConfig.getInt("password.bcrypt.cost", 12);
+        if (cost < 4 || cost > 31) {
+            throw new IllegalStateException("password.bcrypt.cost must be between 4 and 31, was " + cost);
+        }
+        int threads = AppConfig.getInt("password.hash.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        queueCapacity = AppConfig.getInt("password.hash.queue.size", 64);
+        dummyHash = BCrypt.hashpw(UUID.randomUUID().toString(), BCrypt.gensalt(cost));
+        maxWaitMillis = AppConfig.getLong("password.hash.max.wait.ms", 5000);
+        
+        AtomicInteger threadIds = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hasher-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hasher started: cost {}, {} threads, queue {}", cost, threads, queueCapacity);
+    }
+    
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            instance = new PasswordHasher();
+        }
+        return instance;
+    }
+    
+    public CompletableFuture<String> hashAsync(String plainPassword) {
+        return submit(() -> BCrypt.hashpw(plainPassword, BCrypt.gensalt(cost)), hashes, hashNanos);
+    }
+    
+    public CompletableFuture<Boolean> verifyAsync(String plainPassword, String hashedPassword) {
+        return submit(() -> BCrypt.checkpw(plainPassword, hashedPassword), verifications, verifyNanos);
+    }
+    
+    // Blocks the caller until the hash is done; the CPU work itself still happens on the pool
+    public String hash(String plainPassword) throws PasswordHashingBusyException {
+        return await(hashAsync(plainPassword));
+    }
+    
+    public boolean verify(String plainPassword, String hashedPassword) throws PasswordHashingBusyException {
+        return await(verifyAsync(plainPassword, hashedPassword));
+    }
+    
+    // Hash of a random secret at the configured cost; verifying against it costs what a real account does
+    public String getDummyHash() {
+        return dummyHash;
+    }
+    
+    // True when the stored hash was made with a different cost than the one configured now
+    public boolean needsRehash(String hashedPassword) {
+        return costOf(hashedPassword) != cost;
+    }
+    
+    // Reads the cost from a "$2a$12$..." hash; -1 when the string is not a BCrypt hash
+    static int costOf(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = hashedPassword.indexOf('$', 1) + 1;
+        if (costStart == 0 || costStart + 2 >= hashedPassword.length() || hashedPassword.charAt(costStart + 2) != '$') {
+            return -1;
+        }
+        char tens = hashedPassword.charAt(costStart);
+        char ones = hashedPassword.charAt(costStart + 1);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+    
+    private <T> CompletableFuture<T> submit(Callable<T> work, AtomicLong count, AtomicLong totalNanos) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                // The caller gave up while this sat in the queue; don't spend a hash on nobody
+                if (future.isDone()) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                queueWaitNanos.addAndGet(begin - queuedAt);
+                started.incrementAndGet();
+                T value;
+                try {
+                    value = work.call();
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                    return;
+                } finally {
+                    long elapsed = System.nanoTime() - begin;
+                    count.incrementAndGet();
+                    totalNanos.addAndGet(elapsed);
+                    maxWorkNanos.accumulateAndGet(elapsed, Math::max);
+                }
+                // Completed outside the timed block: dependent callbacks run here and are not hash latency
+                future.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new PasswordHashingBusyException(
+                    "Too many sign-ins in progress, please try again shortly"));
+        }
+        return future;
+    }
+    
+    private <T> T await(CompletableFuture<T> future) throws PasswordHashingBusyException {
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            future.cancel(false);
+            throw new PasswordHashingBusyException("Password hashing timed out after " + maxWaitMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PasswordHashingBusyException busy) {
+                throw busy;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+    
+    public int getCost() { return cost; }
+    
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    
+    public int getQueueCapacity() { return queueCapacity; }
+    
+    public int getActiveCount() { return executor.getActiveCount(); }
+    
+    public long getRejectedCount() { return rejected.get(); }
+    
+    public long getTimeoutCount() { return timeouts.get(); }
+    
+    public long getHashCount() { return hashes.get(); }
+    
+    public long getVerifyCount() { return verifications.get(); }
+    
+    public double getAverageHashMillis() { return averageMillis(hashNanos.get(), hashes.get()); }
+    
+    public double getAverageVerifyMillis() { return averageMillis(verifyNanos.get(), verifications.get()); }
+    
+    public double getMaxWorkMillis() { return maxWorkNanos.get() / 1_000_000.0; }
+    
+    public double getAverageQueueWaitMillis() { return averageMillis(queueWaitNanos.get(), started.get()); }
+    
+    private static double averageMillis(long nanos, long count) {
+        return count == 0 ? 0.0 : nanos / (count * 1_000_000.0);
+    }
+}
@@ -0,0 +1,11 @@
+package com.store.util;
+
+public class PasswordHashingBusyException extends Exception {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+    
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
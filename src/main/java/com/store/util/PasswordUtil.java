@@ -1,15 +1,17 @@
 package com.store.util;
 
-import org.mindrot.jbcrypt.BCrypt;
-
 public class PasswordUtil {
-    private static final int ROUNDS = 12;
     
-    public static String hashPassword(String plainPassword) {
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(ROUNDS));
+    public static String hashPassword(String plainPassword) throws PasswordHashingBusyException {
+        return PasswordHasher.getInstance().hash(plainPassword);
+    }
+    
+    public static boolean verifyPassword(String plainPassword, String hashedPassword)
+            throws PasswordHashingBusyException {
+        return PasswordHasher.getInstance().verify(plainPassword, hashedPassword);
     }
     
-    public static boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return BCrypt.checkpw(plainPassword, hashedPassword);
+    public static boolean needsRehash(String hashedPassword) {
+        return PasswordHasher.getInstance().needsRehash(hashedPassword);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+-- Derby already backs every FOREIGN KEY with an index on the referencing column
+-- (orders.customer_id, order_item.order_id, order_item.product_id), so these
+-- are composite indexes shaped to the queries that filter and sort on them.
+
+-- Catalog pages: ORDER BY created_date DESC, product_id as tie-breaker
+CREATE INDEX idx_product_created_date ON product (created_date DESC, product_id DESC);
+
+-- Cart lookup and order history per customer
+CREATE INDEX idx_orders_customer_status ON orders (customer_id, status);
+CREATE INDEX idx_orders_customer_date ON orders (customer_id, order_date DESC, order_id DESC);
+
+-- Admin views filtered by order status
+CREATE INDEX idx_orders_status ON orders (status, order_date DESC);
+
+-- Cart line lookup by (order, product)
+CREATE INDEX idx_order_item_order_product ON order_item (order_id, product_id);
+
+-- Sales per product
+CREATE INDEX idx_order_item_product ON order_item (product_id, order_id);
@@ -0,0 +1,3 @@
+-- Catalog re-imports match incoming rows to existing products by name and company.
+-- Not unique: databases loaded before upsert imports may already hold duplicates.
+CREATE INDEX idx_product_name_company ON product (name, company);
@@ -0,0 +1,9 @@
+-- Highest stock journal sequence already applied to product.stock by the inventory flusher.
+-- Updated in the same transaction as the stock deltas, so replay after a crash never double-applies.
+CREATE TABLE inventory_checkpoint (
+    id INTEGER NOT NULL,
+    applied_seq BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO inventory_checkpoint (id, applied_seq) VALUES (1, 0);
@@ -0,0 +1,82 @@
+-- Sales rollups for admin reporting, kept current by OrderDAOImpl in the same transaction as
+-- order placement, status changes and deletes. An order counts as a sale while its status is
+-- Placed, Processing, Shipped or Delivered, and is dated by order_date.
+-- Rows that many checkouts touch (a day's totals, a hot product's day, a status's count) are
+-- split over stripes (order_id mod sales.rollup.stripes) so concurrent checkouts do not queue on
+-- one row lock; readers sum the stripes. Rebuild with SalesReportService (see README) after loading orders
+-- outside OrderDAO.
+
+-- Units and revenue (quantity * price_at_order) per product per day
+CREATE TABLE sales_daily_product (
+    sales_date DATE NOT NULL,
+    product_id INTEGER NOT NULL,
+    stripe SMALLINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(15,2) NOT NULL,
+    order_count INTEGER NOT NULL,
+    PRIMARY KEY (sales_date, product_id, stripe)
+);
+
+CREATE INDEX idx_sales_daily_product_product ON sales_daily_product (product_id, sales_date);
+
+-- Orders, units and revenue per day
+CREATE TABLE sales_daily (
+    sales_date DATE NOT NULL,
+    stripe SMALLINT NOT NULL,
+    order_count INTEGER NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(15,2) NOT NULL,
+    PRIMARY KEY (sales_date, stripe)
+);
+
+-- Lifetime value (sum of total_amount over counted orders) per customer; last_order_date is the
+-- latest order placed, cancelled or not
+CREATE TABLE customer_sales (
+    customer_id INTEGER NOT NULL,
+    order_count INTEGER NOT NULL,
+    lifetime_value DECIMAL(15,2) NOT NULL,
+    last_order_date TIMESTAMP,
+    PRIMARY KEY (customer_id)
+);
+
+CREATE INDEX idx_customer_sales_value ON customer_sales (lifetime_value DESC);
+
+-- Orders and their total_amount per status, carts excluded
+CREATE TABLE order_status_summary (
+    status VARCHAR(20) NOT NULL,
+    stripe SMALLINT NOT NULL,
+    order_count INTEGER NOT NULL,
+    total_amount DECIMAL(15,2) NOT NULL,
+    PRIMARY KEY (status, stripe)
+);
+
+-- Backfill from the orders already in the database
+INSERT INTO sales_daily_product (sales_date, product_id, stripe, units, revenue, order_count)
+SELECT CAST(o.order_date AS DATE), i.product_id, 0, SUM(i.quantity), SUM(i.quantity * i.price_at_order), COUNT(*)
+FROM orders o JOIN order_item i ON i.order_id = o.order_id
+WHERE o.status IN ('Placed', 'Processing', 'Shipped', 'Delivered')
+GROUP BY CAST(o.order_date AS DATE), i.product_id;
+
+INSERT INTO sales_daily (sales_date, stripe, order_count, units, revenue)
+SELECT CAST(o.order_date AS DATE), 0, COUNT(*), SUM(COALESCE(l.units, 0)), SUM(COALESCE(l.revenue, 0))
+FROM orders o LEFT JOIN (
+    SELECT order_id, SUM(quantity) AS units, SUM(quantity * price_at_order) AS revenue
+    FROM order_item GROUP BY order_id
+) l ON l.order_id = o.order_id
+WHERE o.status IN ('Placed', 'Processing', 'Shipped', 'Delivered')
+GROUP BY CAST(o.order_date AS DATE);
+
+INSERT INTO customer_sales (customer_id, order_count, lifetime_value, last_order_date)
+SELECT customer_id,
+       SUM(CASE WHEN status = 'Cancelled' THEN 0 ELSE 1 END),
+       SUM(CASE WHEN status = 'Cancelled' THEN 0 ELSE COALESCE(total_amount, 0) END),
+       MAX(order_date)
+FROM orders
+WHERE status <> 'Cart'
+GROUP BY customer_id;
+
+INSERT INTO order_status_summary (status, stripe, order_count, total_amount)
+SELECT status, 0, COUNT(*), SUM(COALESCE(total_amount, 0))
+FROM orders
+WHERE status <> 'Cart'
+GROUP BY status;